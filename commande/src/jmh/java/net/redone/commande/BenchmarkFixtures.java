@@ -0,0 +1,83 @@
+package net.redone.commande;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ProductSnapshot;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.entities.CommandeItem;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Deterministic data shared by the benchmarks, shaped like what the services handle in production.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Commande order(long id, int lines) {
+        Commande commande = new Commande();
+        commande.setId(id);
+        commande.setClientId("client-" + (id % 100));
+        commande.setOrderDate(LocalDateTime.of(2026, 1, 1, 12, 0).plusMinutes(id));
+        commande.setStatus("VALIDATED");
+        BigDecimal total = BigDecimal.ZERO;
+        for (int line = 0; line < lines; line++) {
+            CommandeItem item = new CommandeItem();
+            item.setId(id * 10_000 + line);
+            item.setProductId((long) line + 1);
+            item.setQuantity(line % 5 + 1);
+            item.setPrice(price(line));
+            item.setLineTotal(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            item.setCommande(commande);
+            commande.getItems().add(item);
+            total = total.add(item.getLineTotal());
+        }
+        commande.setTotalAmount(total);
+        return commande;
+    }
+
+    public static List<CommandeItemRequest> itemRequests(int lines) {
+        List<CommandeItemRequest> items = new ArrayList<>(lines);
+        for (int line = 0; line < lines; line++) {
+            items.add(new CommandeItemRequest((long) line + 1, line % 5 + 1));
+        }
+        return items;
+    }
+
+    public static Map<Long, ProductSnapshot> snapshots(int count) {
+        Map<Long, ProductSnapshot> products = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            products.put(id, new ProductSnapshot(id, "Product " + id, "Description " + id, price(i), 1_000));
+        }
+        return products;
+    }
+
+    /**
+     * A Keycloak access token carrying realm roles and roles for two clients.
+     */
+    public static Jwt keycloakToken() {
+        return Jwt.withTokenValue("benchmark-token")
+                .header("alg", "RS256")
+                .subject("3f1c2b9e-5d4a-4c1e-9a8b-0f2e6d7c5b4a")
+                .claim("preferred_username", "client1")
+                .claim("realm_access", Map.of(
+                        "roles", List.of("CLIENT", "offline_access", "uma_authorization", "default-roles-gestion")
+                ))
+                .claim("resource_access", Map.of(
+                        "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+                        "frontend", Map.of("roles", List.of("CLIENT"))
+                ))
+                .build();
+    }
+
+    private static BigDecimal price(int index) {
+        return BigDecimal.valueOf(199 + (index * 37L) % 100_000, 2);
+    }
+}
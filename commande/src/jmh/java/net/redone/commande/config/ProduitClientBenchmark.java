@@ -0,0 +1,100 @@
+package net.redone.commande.config;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.redone.commande.dtos.ProductSnapshot;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Product lookups against a local stub of produit, through the pooled client commande uses
+ * and through a plain {@code RestTemplate} on {@code HttpURLConnection}, from 8 threads.
+ * The stub disables Nagle so the numbers measure the clients, not delayed ACKs.
+ * The long warm-up is needed: with 8 busy threads the JIT compiler gets little CPU on a
+ * small runner, and the HttpClient 5 stack has more code to compile, so a short warm-up
+ * compares how fast each client compiles rather than how fast it runs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 30, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(8)
+@State(Scope.Benchmark)
+public class ProduitClientBenchmark {
+
+    private static final byte[] PRODUCT = ("{\"id\":1,\"name\":\"Product 1\",\"description\":\"Stub\","
+            + "\"price\":19.90,\"quantity\":100}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer produit;
+    private String productUrl;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate pooled;
+    private RestTemplate plain;
+
+    @Setup
+    public void setUp() throws IOException {
+        produit = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        produit.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        produit.createContext("/api/produits/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, PRODUCT.length);
+            exchange.getResponseBody().write(PRODUCT);
+            exchange.close();
+        });
+        produit.start();
+        productUrl = "http://127.0.0.1:" + produit.getAddress().getPort() + "/api/produits/1";
+
+        ProduitClientConfig config = new ProduitClientConfig();
+        connectionManager = config.produitConnectionManager(
+                100,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(5),
+                Duration.ofMinutes(5)
+        );
+        httpClient = config.produitHttpClient(
+                connectionManager,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(30)
+        );
+        pooled = config.restTemplate(httpClient);
+        plain = new RestTemplate();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        produit.stop(0);
+    }
+
+    @Benchmark
+    public ProductSnapshot pooledClient() {
+        return pooled.getForObject(productUrl, ProductSnapshot.class);
+    }
+
+    @Benchmark
+    public ProductSnapshot plainClient() {
+        return plain.getForObject(productUrl, ProductSnapshot.class);
+    }
+}
@@ -0,0 +1,53 @@
+package net.redone.commande.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.redone.commande.BenchmarkFixtures;
+import net.redone.commande.mappers.CommandeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serializing a page of order responses, five lines each, to the JSON bytes written on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandeJsonBenchmark {
+
+    private static final int LINES_PER_ORDER = 5;
+
+    @Param({"50", "1000"})
+    private int orders;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<CommandeResponse> responses;
+
+    @Setup
+    public void setUp() {
+        CommandeMapper commandeMapper = new CommandeMapper();
+        responses = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            responses.add(commandeMapper.toResponse(BenchmarkFixtures.order(i + 1, LINES_PER_ORDER)));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeResponses() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,53 @@
+package net.redone.commande.mappers;
+
+import java.util.concurrent.TimeUnit;
+import net.redone.commande.BenchmarkFixtures;
+import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.entities.Commande;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping one order to its response, line totals included, as every read endpoint does.
+ * Without stored line totals the mapper recomputes them, as it did for every read before
+ * they were persisted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandeMapperBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int lines;
+
+    @Param({"true", "false"})
+    private boolean storedLineTotals;
+
+    private final CommandeMapper commandeMapper = new CommandeMapper();
+    private Commande commande;
+
+    @Setup
+    public void setUp() {
+        commande = BenchmarkFixtures.order(1, lines);
+        if (!storedLineTotals) {
+            commande.getItems().forEach(item -> item.setLineTotal(null));
+        }
+    }
+
+    @Benchmark
+    public CommandeResponse toResponse() {
+        return commandeMapper.toResponse(commande);
+    }
+}
@@ -0,0 +1,77 @@
+package net.redone.commande.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.redone.commande.BenchmarkFixtures;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ProductSnapshot;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.entities.CommandeItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and pricing the items of a new order from the product snapshots, the CPU part of
+ * {@code CommandeServiceImpl.create} once produit has answered. {@code bigDecimal} is the
+ * pricing done before {@link OrderPricing}, kept as the reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int lines;
+
+    private final OrderPricing pricing = new OrderPricing(0, 0, 0);
+    private List<CommandeItemRequest> items;
+    private Map<Long, ProductSnapshot> products;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkFixtures.itemRequests(lines);
+        products = BenchmarkFixtures.snapshots(lines);
+    }
+
+    @Benchmark
+    public BigDecimal fixedPoint() {
+        return CommandeServiceImpl.addItems(new Commande(), items, products, pricing);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        Commande commande = new Commande();
+        List<CommandeItem> orderItems = new ArrayList<>(items.size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (var itemRequest : items) {
+            ProductSnapshot product = products.get(itemRequest.getProductId());
+            BigDecimal price = product.getPrice();
+            BigDecimal lineTotal = price.multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
+            totalAmount = totalAmount.add(lineTotal);
+
+            CommandeItem item = new CommandeItem();
+            item.setProductId(product.getId());
+            item.setQuantity(itemRequest.getQuantity());
+            item.setPrice(price);
+            item.setCommande(commande);
+            orderItems.add(item);
+        }
+        commande.setItems(orderItems);
+        return totalAmount;
+    }
+}
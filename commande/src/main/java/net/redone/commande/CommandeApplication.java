@@ -11,20 +11,16 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CommandeApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(CommandeApplication.class, args);
 	}
 
-	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
-	}
-
 	@Bean
 	CommandLineRunner seedCommandes(CommandeRepository commandeRepository) {
 		return args -> {
@@ -53,9 +49,9 @@ public class CommandeApplication {
 				item2.setCommande(commande);
 				items.add(item2);
 
-				BigDecimal total = item1.getPrice().multiply(BigDecimal.valueOf(item1.getQuantity()))
-						.add(item2.getPrice().multiply(BigDecimal.valueOf(item2.getQuantity())));
-				commande.setTotalAmount(total);
+				item1.setLineTotal(item1.getPrice().multiply(BigDecimal.valueOf(item1.getQuantity())));
+				item2.setLineTotal(item2.getPrice().multiply(BigDecimal.valueOf(item2.getQuantity())));
+				commande.setTotalAmount(item1.getLineTotal().add(item2.getLineTotal()));
 				commande.setItems(items);
 
 				commandes.add(commande);
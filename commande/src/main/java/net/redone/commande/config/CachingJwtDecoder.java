@@ -0,0 +1,80 @@
+package net.redone.commande.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Remembers the tokens that already passed signature and claim validation, keyed by their
+ * SHA-256, so a caller presenting the same bearer token again skips the RSA verification.
+ * Entries never outlive the token's {@code exp}; tokens that fail validation are not cached.
+ * Concurrent requests carrying a token not yet seen wait for a single verification.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final AsyncCache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String key, Jwt jwt) -> timeToLive(jwt, maxTtl)))
+                .buildAsync();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        // The first caller installs a pending future and verifies outside the cache's locks, since
+        // a key rotation makes the delegate fetch the JWK set; the others wait on that future.
+        CompletableFuture<Jwt> verification = new CompletableFuture<>();
+        CompletableFuture<Jwt> jwt = cache.get(sha256(token), (key, executor) -> verification);
+        if (jwt == verification) {
+            try {
+                verification.complete(delegate.decode(token));
+            } catch (RuntimeException ex) {
+                verification.completeExceptionally(ex);
+            }
+        }
+        try {
+            return jwt.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Duration timeToLive(Jwt jwt, Duration maxTtl) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtl;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
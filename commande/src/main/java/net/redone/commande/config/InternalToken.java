@@ -0,0 +1,39 @@
+package net.redone.commande.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The secret shared by the services on the {@code /internal/**} endpoints, which the
+ * gateway does not route. It has no default: the service refuses to start without one.
+ */
+@Component
+public class InternalToken {
+
+    public static final String HEADER = "X-Internal-Token";
+
+    private final String secret;
+
+    public InternalToken(@Value("${internal.events.secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("internal.events.secret must be set (INTERNAL_EVENTS_SECRET)");
+        }
+        this.secret = secret;
+    }
+
+    public void verify(String token) {
+        if (token == null
+                || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid internal token");
+        }
+    }
+
+    public void addTo(HttpHeaders headers) {
+        headers.set(HEADER, secret);
+    }
+}
@@ -0,0 +1,67 @@
+package net.redone.commande.config;
+
+import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client used for the calls to produit: a bounded pool of keep-alive connections,
+ * with timeouts on connecting, on waiting for a pooled connection and on reading the response.
+ */
+@Configuration
+public class ProduitClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager produitConnectionManager(
+            @Value("${produit.client.max-connections:100}") int maxConnections,
+            @Value("${produit.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${produit.client.read-timeout:5s}") Duration readTimeout,
+            @Value("${produit.client.time-to-live:5m}") Duration timeToLive
+    ) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient produitHttpClient(
+            PoolingHttpClientConnectionManager produitConnectionManager,
+            @Value("${produit.client.pool-timeout:2s}") Duration poolTimeout,
+            @Value("${produit.client.read-timeout:5s}") Duration readTimeout,
+            @Value("${produit.client.keep-alive:30s}") Duration keepAlive
+    ) {
+        return HttpClients.custom()
+                .setConnectionManager(produitConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient produitHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(produitHttpClient));
+    }
+}
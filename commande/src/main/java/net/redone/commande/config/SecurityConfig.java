@@ -1,10 +1,15 @@
 package net.redone.commande.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,20 +17,32 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 public class SecurityConfig {
 
+    // Keyed by identity: the decoder cache hands out the same Jwt for every request carrying a token.
+    private final Cache<Jwt, Collection<GrantedAuthority>> authoritiesByToken = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info", "/actuator/prometheus")
+                        .permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/internal/events").permitAll()
+                        .requestMatchers("/api/catalog-client/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/commandes").hasRole("CLIENT")
                         .requestMatchers(HttpMethod.POST, "/api/commandes/**").hasRole("CLIENT")
+                        .requestMatchers(HttpMethod.GET, "/api/commandes/export", "/api/commandes/summary").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/commandes/client/**").hasRole("CLIENT")
                         .requestMatchers(HttpMethod.GET, "/api/commandes").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/commandes/**").hasAnyRole("ADMIN", "CLIENT")
@@ -40,11 +57,27 @@ public class SecurityConfig {
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(this::extractRoles);
+        converter.setJwtGrantedAuthoritiesConverter(jwt -> authoritiesByToken.get(jwt, this::extractRoles));
         return converter;
     }
 
-    private Collection<GrantedAuthority> extractRoles(Jwt jwt) {
+    @Bean
+    public static BeanPostProcessor cachingJwtDecoderPostProcessor(
+            @Value("${security.jwt.cache.max-size:10000}") long maxSize,
+            @Value("${security.jwt.cache.max-ttl:10m}") Duration maxTtl
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JwtDecoder decoder && !(bean instanceof CachingJwtDecoder)) {
+                    return new CachingJwtDecoder(decoder, maxSize, maxTtl);
+                }
+                return bean;
+            }
+        };
+    }
+
+    Collection<GrantedAuthority> extractRoles(Jwt jwt) {
         Set<String> roleNames = new HashSet<>();
 
         Object realmAccess = jwt.getClaim("realm_access");
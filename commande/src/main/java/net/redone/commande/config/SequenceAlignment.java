@@ -0,0 +1,51 @@
+package net.redone.commande.config;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders and items used to take their ids from identity columns. On a database that already
+ * holds rows, the sequences that replaced them start at 1, so before the application serves
+ * traffic each sequence is moved past the highest id of its table.
+ */
+@Component
+public class SequenceAlignment implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "commandes_seq", "commandes",
+            "commande_items_seq", "commande_items"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            Long value = jdbcTemplate.queryForObject(
+                    "select setval('" + sequence + "', greatest("
+                            + "(select coalesce(max(id), 0) from " + table + ") + " + ALLOCATION_SIZE + ", "
+                            + "(select last_value from " + sequence + ")))",
+                    Long.class
+            );
+            logger.debug("Sequence {} positioned at {}", sequence, value);
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package net.redone.commande.controllers;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import net.redone.commande.dtos.CatalogClientStats;
+import net.redone.commande.services.ProduitCatalogService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalog-client")
+@RequiredArgsConstructor
+public class CatalogClientController {
+
+    private final ProduitCatalogService produitCatalogService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogClientStats> stats() {
+        return ResponseEntity.ok(produitCatalogService.stats());
+    }
+
+    @PostMapping("/cache/invalidations")
+    public ResponseEntity<Void> invalidate(@RequestBody List<Long> productIds) {
+        produitCatalogService.invalidate(productIds);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> invalidateAll() {
+        produitCatalogService.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,11 +1,21 @@
 package net.redone.commande.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import net.redone.commande.dtos.CommandeCreateRequest;
 import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.dtos.CommandeSummary;
+import net.redone.commande.dtos.CursorPage;
+import net.redone.commande.services.CommandeExportService;
 import net.redone.commande.services.CommandeService;
+import net.redone.commande.services.CommandeStatistics;
+import net.redone.commande.services.IdempotentCommandeService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -16,6 +26,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.server.ResponseStatusException;
@@ -26,18 +37,24 @@ import org.springframework.web.server.ResponseStatusException;
 public class CommandeController {
 
     private final CommandeService commandeService;
+    private final CommandeExportService commandeExportService;
+    private final CommandeStatistics commandeStatistics;
+    private final IdempotentCommandeService idempotentCommandeService;
 
     @PostMapping
     public ResponseEntity<CommandeResponse> create(
             @RequestBody CommandeCreateRequest request,
             @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal Jwt jwt
     ) {
         if ((request.getClientId() == null || request.getClientId().isBlank()) && jwt != null) {
             String username = jwt.getClaimAsString("preferred_username");
             request.setClientId(username != null ? username : jwt.getSubject());
         }
-        CommandeResponse response = commandeService.create(authorization, request);
+        CommandeResponse response = idempotencyKey == null
+                ? commandeService.create(authorization, request)
+                : idempotentCommandeService.create(authorization, request, idempotencyKey);
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(response.getId())
@@ -46,23 +63,72 @@ public class CommandeController {
     }
 
     @GetMapping
+    public ResponseEntity<CursorPage<CommandeResponse>> findPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(commandeService.findPage(after, limit));
+    }
+
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<CommandeResponse>> findAll() {
         return ResponseEntity.ok(commandeService.findAll());
     }
 
     @GetMapping("/client/{clientId}")
+    public ResponseEntity<CursorPage<CommandeResponse>> findPageByClient(
+            @PathVariable String clientId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        checkClientAccess(clientId, jwt);
+        return ResponseEntity.ok(commandeService.findPageByClientId(clientId, after, limit));
+    }
+
+    @GetMapping("/client/{clientId}/summary")
+    public ResponseEntity<CommandeSummary> summaryByClient(
+            @PathVariable String clientId,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        checkClientAccess(clientId, jwt);
+        return ResponseEntity.ok(commandeStatistics.summaryForClient(clientId));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<CommandeSummary> summary() {
+        return ResponseEntity.ok(commandeStatistics.summary());
+    }
+
+    @GetMapping(value = "/client/{clientId}", params = "unpaged=true")
     public ResponseEntity<List<CommandeResponse>> findByClient(
             @PathVariable String clientId,
             @AuthenticationPrincipal Jwt jwt
     ) {
-        if (jwt != null && !hasRole(jwt, "ADMIN")) {
-            String username = jwt.getClaimAsString("preferred_username");
-            String principalId = username != null ? username : jwt.getSubject();
-            if (!clientId.equals(principalId)) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot access other client orders");
+        checkClientAccess(clientId, jwt);
+        return ResponseEntity.ok(commandeService.findByClientId(clientId));
+    }
+
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response
+    ) throws IOException {
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                response.setContentType("application/x-ndjson");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"commandes.ndjson\"");
+                commandeExportService.exportNdjson(from, to, response.getOutputStream());
+            }
+            case "csv" -> {
+                response.setContentType("text/csv");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"commandes.csv\"");
+                commandeExportService.exportCsv(from, to, response.getOutputStream());
             }
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
         }
-        return ResponseEntity.ok(commandeService.findByClientId(clientId));
     }
 
     @GetMapping("/{id}")
@@ -70,6 +136,16 @@ public class CommandeController {
         return ResponseEntity.ok(commandeService.findById(id));
     }
 
+    private void checkClientAccess(String clientId, Jwt jwt) {
+        if (jwt != null && !hasRole(jwt, "ADMIN")) {
+            String username = jwt.getClaimAsString("preferred_username");
+            String principalId = username != null ? username : jwt.getSubject();
+            if (!clientId.equals(principalId)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot access other client orders");
+            }
+        }
+    }
+
     private boolean hasRole(Jwt jwt, String role) {
         java.util.Set<String> roleNames = new java.util.HashSet<>();
 
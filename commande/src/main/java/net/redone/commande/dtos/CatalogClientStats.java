@@ -0,0 +1,17 @@
+package net.redone.commande.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogClientStats {
+
+    private CatalogCacheStats cache;
+    private ConnectionPoolStats pool;
+    private ResilienceStats resilience;
+}
@@ -0,0 +1,16 @@
+package net.redone.commande.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandeCreatedPayload {
+
+    private Long commandeId;
+    private String reservationId;
+}
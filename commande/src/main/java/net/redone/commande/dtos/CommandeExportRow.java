@@ -0,0 +1,25 @@
+package net.redone.commande.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One order line as read by the export cursor: the order columns are repeated on every
+ * line of the same order, and the item columns are null for an order without items.
+ */
+@Getter
+@AllArgsConstructor
+public class CommandeExportRow {
+
+    private final Long commandeId;
+    private final String clientId;
+    private final LocalDateTime orderDate;
+    private final String status;
+    private final BigDecimal totalAmount;
+    private final Long productId;
+    private final Integer quantity;
+    private final BigDecimal price;
+    private final BigDecimal lineTotal;
+}
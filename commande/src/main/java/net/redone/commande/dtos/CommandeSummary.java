@@ -0,0 +1,20 @@
+package net.redone.commande.dtos;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandeSummary {
+
+    private long orderCount;
+    private BigDecimal revenue;
+    private BigDecimal averageBasket;
+    private Map<String, Long> ordersByStatus;
+}
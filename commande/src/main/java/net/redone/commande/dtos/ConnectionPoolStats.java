@@ -0,0 +1,18 @@
+package net.redone.commande.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionPoolStats {
+
+    private int leased;
+    private int pending;
+    private int idle;
+    private int max;
+}
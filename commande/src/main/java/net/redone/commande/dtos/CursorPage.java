@@ -0,0 +1,21 @@
+package net.redone.commande.dtos;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is the value to pass as
+ * {@code after} to get the following page, or null when there is nothing left.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,26 @@
+package net.redone.commande.dtos;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An outbox event as sent between services. {@code source} and {@code id} together
+ * identify it for deduplication; {@code payload} is the event body as JSON.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventMessage {
+
+    private String source;
+    private Long id;
+    private String aggregateType;
+    private String aggregateId;
+    private String type;
+    private String payload;
+    private LocalDateTime createdAt;
+}
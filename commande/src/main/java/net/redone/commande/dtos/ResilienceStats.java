@@ -0,0 +1,26 @@
+package net.redone.commande.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResilienceStats {
+
+    private String circuitState;
+    private float failureRate;
+    private float slowCallRate;
+    private long stateTransitions;
+    private long circuitRejections;
+    private int availableConcurrentCalls;
+    private long bulkheadRejections;
+    private long timeouts;
+    private long hedges;
+    private long hedgeWins;
+    private long hedgesSkipped;
+    private long hedgeDelayMs;
+}
@@ -0,0 +1,14 @@
+package net.redone.commande.dtos;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StatusCount {
+
+    private final String status;
+    private final Long orderCount;
+    private final BigDecimal revenue;
+}
@@ -0,0 +1,18 @@
+package net.redone.commande.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResponse {
+
+    private String reservationId;
+    private String status;
+    private Long rejectedProductId;
+    private Integer available;
+}
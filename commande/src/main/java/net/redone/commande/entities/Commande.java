@@ -6,7 +6,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,7 +20,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "commandes")
+@Table(name = "commandes", indexes = @Index(name = "idx_commandes_client_id", columnList = "client_id, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,7 +28,8 @@ import lombok.Setter;
 public class Commande {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commandes_seq")
+    @SequenceGenerator(name = "commandes_seq", sequenceName = "commandes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
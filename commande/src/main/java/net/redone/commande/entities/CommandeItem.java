@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
@@ -24,7 +25,8 @@ import lombok.Setter;
 public class CommandeItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "commande_items_seq")
+    @SequenceGenerator(name = "commande_items_seq", sequenceName = "commande_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,6 +38,13 @@ public class CommandeItem {
     @Column(nullable = false, precision = 13, scale = 2)
     private BigDecimal price;
 
+    /**
+     * Price times quantity after discount and tax, as priced when the order was placed.
+     * Null on lines stored before it was recorded.
+     */
+    @Column(precision = 13, scale = 2)
+    private BigDecimal lineTotal;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "commande_id", nullable = false)
     private Commande commande;
@@ -0,0 +1,15 @@
+package net.redone.commande.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.redone.commande.entities.Commande;
+
+/**
+ * Published inside the transaction that saves a new order.
+ */
+@Getter
+@AllArgsConstructor
+public class CommandeCreatedEvent {
+
+    private final Commande commande;
+}
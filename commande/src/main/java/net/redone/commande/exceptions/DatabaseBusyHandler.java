@@ -0,0 +1,23 @@
+package net.redone.commande.exceptions;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * The Hikari pool is the service's concurrency limit: a request that cannot get a connection
+ * within {@code spring.datasource.hikari.connection-timeout} is turned away with 503.
+ */
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Void> databaseBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
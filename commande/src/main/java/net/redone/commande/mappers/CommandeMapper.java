@@ -27,13 +27,18 @@ public class CommandeMapper {
     }
 
     private CommandeItemResponse toItemResponse(CommandeItem item) {
-        BigDecimal lineTotal = item.getPrice()
-                .multiply(BigDecimal.valueOf(item.getQuantity()));
         return new CommandeItemResponse(
                 item.getProductId(),
                 item.getQuantity(),
                 item.getPrice(),
-                lineTotal
+                lineTotal(item.getLineTotal(), item.getPrice(), item.getQuantity())
         );
     }
+
+    /**
+     * The stored line total, or price times quantity for lines stored before it was recorded.
+     */
+    public static BigDecimal lineTotal(BigDecimal stored, BigDecimal price, int quantity) {
+        return stored != null ? stored : price.multiply(BigDecimal.valueOf(quantity));
+    }
 }
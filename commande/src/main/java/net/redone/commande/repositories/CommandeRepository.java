@@ -1,10 +1,62 @@
 package net.redone.commande.repositories;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import net.redone.commande.dtos.CommandeExportRow;
+import net.redone.commande.dtos.StatusCount;
 import net.redone.commande.entities.Commande;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+/**
+ * Every listing method loads the items of the returned orders in a bounded number of
+ * queries: either with an entity graph, or for keyset pages (where a collection fetch
+ * would defeat the SQL limit) with a second {@link #fetchItems} query over the page ids.
+ */
 public interface CommandeRepository extends JpaRepository<Commande, Long> {
 
-    List<Commande> findByClientId(String clientId);
+    @EntityGraph(attributePaths = "items")
+    @Query("select c from Commande c order by c.id")
+    List<Commande> findAllWithItems();
+
+    @EntityGraph(attributePaths = "items")
+    List<Commande> findByClientIdOrderByIdAsc(String clientId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Commande> findWithItemsById(Long id);
+
+    List<Commande> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    List<Commande> findByClientIdAndIdGreaterThanOrderByIdAsc(String clientId, Long after, Limit limit);
+
+    @Query("select c from Commande c left join fetch c.items where c.id in :ids order by c.id")
+    List<Commande> fetchItems(@Param("ids") Collection<Long> ids);
+
+    @Query("select new net.redone.commande.dtos.StatusCount(c.status, count(c), coalesce(sum(c.totalAmount), 0)) "
+            + "from Commande c group by c.status")
+    List<StatusCount> summarizeByStatus();
+
+    @Query("select new net.redone.commande.dtos.StatusCount(c.status, count(c), coalesce(sum(c.totalAmount), 0)) "
+            + "from Commande c where c.clientId = :clientId group by c.status")
+    List<StatusCount> summarizeByStatusForClient(@Param("clientId") String clientId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new net.redone.commande.dtos.CommandeExportRow("
+            + "c.id, c.clientId, c.orderDate, c.status, c.totalAmount, i.productId, i.quantity, i.price, i.lineTotal) "
+            + "from Commande c left join c.items i "
+            + "where c.orderDate >= :from and c.orderDate < :to "
+            + "order by c.id, i.id")
+    Stream<CommandeExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
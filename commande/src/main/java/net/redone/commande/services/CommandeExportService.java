@@ -0,0 +1,12 @@
+package net.redone.commande.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface CommandeExportService {
+
+    void exportNdjson(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException;
+
+    void exportCsv(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException;
+}
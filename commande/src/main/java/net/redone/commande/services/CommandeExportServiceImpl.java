@@ -0,0 +1,133 @@
+package net.redone.commande.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import net.redone.commande.dtos.CommandeExportRow;
+import net.redone.commande.dtos.CommandeItemResponse;
+import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.mappers.CommandeMapper;
+import net.redone.commande.repositories.CommandeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes orders straight from a server-side cursor to the response: rows are fetched
+ * in small chunks, are not managed by the persistence context, and at most one order
+ * is held in memory at a time.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CommandeExportServiceImpl implements CommandeExportService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CommandeRepository commandeRepository;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public void exportNdjson(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException {
+        try (Stream<CommandeExportRow> rows = streamRows(from, to); Writer writer = bufferedWriter(output)) {
+            Iterator<CommandeExportRow> iterator = rows.iterator();
+            CommandeResponse current = null;
+            while (iterator.hasNext()) {
+                CommandeExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getCommandeId())) {
+                    writeJsonLine(writer, current);
+                    current = new CommandeResponse(
+                            row.getCommandeId(),
+                            row.getClientId(),
+                            row.getOrderDate(),
+                            row.getStatus(),
+                            row.getTotalAmount(),
+                            new ArrayList<>()
+                    );
+                }
+                if (row.getProductId() != null) {
+                    current.getItems().add(new CommandeItemResponse(
+                            row.getProductId(),
+                            row.getQuantity(),
+                            row.getPrice(),
+                            lineTotal(row)
+                    ));
+                }
+            }
+            writeJsonLine(writer, current);
+        }
+    }
+
+    @Override
+    public void exportCsv(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException {
+        try (Stream<CommandeExportRow> rows = streamRows(from, to); Writer writer = bufferedWriter(output)) {
+            writer.write("order_id,client_id,order_date,status,total_amount,product_id,quantity,price,line_total\n");
+            Iterator<CommandeExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CommandeExportRow row = iterator.next();
+                writeCsvLine(writer, List.of(
+                        String.valueOf(row.getCommandeId()),
+                        csvValue(row.getClientId()),
+                        String.valueOf(row.getOrderDate()),
+                        csvValue(row.getStatus()),
+                        row.getTotalAmount().toPlainString(),
+                        row.getProductId() == null ? "" : String.valueOf(row.getProductId()),
+                        row.getQuantity() == null ? "" : String.valueOf(row.getQuantity()),
+                        row.getPrice() == null ? "" : row.getPrice().toPlainString(),
+                        row.getProductId() == null ? "" : lineTotal(row).toPlainString()
+                ));
+            }
+        }
+    }
+
+    private Stream<CommandeExportRow> streamRows(LocalDateTime from, LocalDateTime to) {
+        return commandeRepository.streamExportRows(
+                from == null ? EARLIEST : from,
+                to == null ? LATEST : to
+        );
+    }
+
+    private Writer bufferedWriter(OutputStream output) {
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private void writeJsonLine(Writer writer, CommandeResponse commande) throws IOException {
+        if (commande == null) {
+            return;
+        }
+        writer.write(jsonMapper.writeValueAsString(commande));
+        writer.write('\n');
+    }
+
+    private void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        writer.write(String.join(",", values));
+        writer.write('\n');
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private BigDecimal lineTotal(CommandeExportRow row) {
+        return CommandeMapper.lineTotal(row.getLineTotal(), row.getPrice(), row.getQuantity());
+    }
+}
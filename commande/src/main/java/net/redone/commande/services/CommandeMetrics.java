@@ -0,0 +1,85 @@
+package net.redone.commande.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Business counters of the order flow and timers of the calls made to produit, so load can
+ * be read next to the errors it causes. Latency buckets are set with the
+ * {@code management.metrics.distribution.*} properties.
+ */
+@Component
+public class CommandeMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter ordersCreated;
+    private final DistributionSummary itemsPerOrder;
+    private final Counter stockRejections;
+
+    public CommandeMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.ordersCreated = Counter.builder("commande.orders")
+                .description("Orders committed")
+                .register(registry);
+        this.itemsPerOrder = DistributionSummary.builder("commande.orders.items")
+                .description("Lines per committed order")
+                .baseUnit("items")
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50)
+                .register(registry);
+        this.stockRejections = Counter.builder("commande.stock.rejections")
+                .description("Orders refused by produit for insufficient stock")
+                .register(registry);
+    }
+
+    public void orderCreated(int items) {
+        ordersCreated.increment();
+        itemsPerOrder.record(items);
+    }
+
+    public void stockRejected() {
+        stockRejections.increment();
+    }
+
+    /**
+     * Times one call to produit under {@code produit.client.requests}, tagged with the
+     * operation and with an outcome derived from the status the call ended with.
+     */
+    public <T> T timeProduitCall(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "SERVER_ERROR";
+        try {
+            T result = call.get();
+            outcome = "SUCCESS";
+            return result;
+        } catch (ResponseStatusException ex) {
+            outcome = outcome(ex.getStatusCode());
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("produit.client.requests")
+                    .description("Calls from commande to produit")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.value() == HttpStatus.NOT_FOUND.value()) {
+            return "NOT_FOUND";
+        }
+        if (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return "UNAVAILABLE";
+        }
+        if (status.value() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            return "TIMEOUT";
+        }
+        return status.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+}
@@ -1,16 +1,29 @@
 package net.redone.commande.services;
 
 import java.util.List;
+import java.util.function.Consumer;
 import net.redone.commande.dtos.CommandeCreateRequest;
 import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.dtos.CursorPage;
 
 public interface CommandeService {
 
     CommandeResponse create(String authorization, CommandeCreateRequest request);
 
+    /**
+     * Creates the order like {@link #create(String, CommandeCreateRequest)} and hands its id
+     * to {@code inTransaction} inside the transaction that inserts it, so that writes made
+     * there commit or roll back with the order.
+     */
+    CommandeResponse create(String authorization, CommandeCreateRequest request, Consumer<Long> inTransaction);
+
     List<CommandeResponse> findAll();
 
     List<CommandeResponse> findByClientId(String clientId);
 
+    CursorPage<CommandeResponse> findPage(Long after, int limit);
+
+    CursorPage<CommandeResponse> findPageByClientId(String clientId, Long after, int limit);
+
     CommandeResponse findById(Long id);
 }
@@ -1,33 +1,83 @@
 package net.redone.commande.services;
 
+import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
+import java.util.function.Consumer;
 import net.redone.commande.dtos.CommandeCreateRequest;
+import net.redone.commande.dtos.CommandeCreatedPayload;
+import net.redone.commande.dtos.CommandeItemRequest;
 import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.dtos.CursorPage;
 import net.redone.commande.dtos.ProductSnapshot;
 import net.redone.commande.entities.Commande;
 import net.redone.commande.entities.CommandeItem;
+import net.redone.commande.events.CommandeCreatedEvent;
 import net.redone.commande.mappers.CommandeMapper;
 import net.redone.commande.repositories.CommandeRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
-@Transactional
-@RequiredArgsConstructor
+@Timed("commande.service")
 public class CommandeServiceImpl implements CommandeService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final CommandeRepository commandeRepository;
     private final CommandeMapper commandeMapper;
     private final ProduitCatalogService produitCatalogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final CommandeMetrics commandeMetrics;
+    private final OrderPricing orderPricing;
+    private final TransactionTemplate transactionTemplate;
+
+    public CommandeServiceImpl(
+            CommandeRepository commandeRepository,
+            CommandeMapper commandeMapper,
+            ProduitCatalogService produitCatalogService,
+            ApplicationEventPublisher eventPublisher,
+            OutboxService outboxService,
+            CommandeMetrics commandeMetrics,
+            OrderPricing orderPricing,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.commandeRepository = commandeRepository;
+        this.commandeMapper = commandeMapper;
+        this.produitCatalogService = produitCatalogService;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.commandeMetrics = commandeMetrics;
+        this.orderPricing = orderPricing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
     public CommandeResponse create(String authorization, CommandeCreateRequest request) {
+        return create(authorization, request, id -> {
+        });
+    }
+
+    /**
+     * Both produit calls are made before the transaction starts, so a slow produit never
+     * holds a database connection: only the inserts and the outbox append run inside it.
+     */
+    @Override
+    public CommandeResponse create(
+            String authorization,
+            CommandeCreateRequest request,
+            Consumer<Long> inTransaction
+    ) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must contain items");
         }
@@ -40,42 +90,78 @@ public class CommandeServiceImpl implements CommandeService {
         commande.setOrderDate(LocalDateTime.now());
         commande.setStatus("VALIDATED");
 
-        List<CommandeItem> items = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
         for (var itemRequest : request.getItems()) {
-            ProductSnapshot product = produitCatalogService.getProduct(itemRequest.getProductId(), authorization);
-            int available = product.getQuantity() == null ? 0 : product.getQuantity();
-            if (available < itemRequest.getQuantity()) {
-                throw new ResponseStatusException(
-                        HttpStatus.BAD_REQUEST,
-                        "Insufficient stock for product " + product.getId()
-                                + ". Available: " + available
-                );
+            if (itemRequest.getProductId() == null || itemRequest.getQuantity() == null
+                    || itemRequest.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each item needs a product and a positive quantity");
             }
-            BigDecimal price = product.getPrice();
-            BigDecimal lineTotal = price.multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
-            totalAmount = totalAmount.add(lineTotal);
+        }
+        Map<Long, ProductSnapshot> products = produitCatalogService.getProducts(
+                request.getItems().stream().map(CommandeItemRequest::getProductId).toList(),
+                authorization
+        );
+
+        commande.setTotalAmount(addItems(commande, request.getItems(), products, orderPricing));
+
+        // Stock is checked and taken atomically by produit. The reservation is made final by
+        // the CommandeCreated event, which is only relayed once this order is committed, and
+        // is given back right away if the order cannot be committed.
+        String reservationId = produitCatalogService.reserveStock(request.getItems());
+        CommandeResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                Commande saved = commandeRepository.save(commande);
+                outboxService.append(
+                        "Commande",
+                        String.valueOf(saved.getId()),
+                        "CommandeCreated",
+                        new CommandeCreatedPayload(saved.getId(), reservationId)
+                );
+                eventPublisher.publishEvent(new CommandeCreatedEvent(saved));
+                inTransaction.accept(saved.getId());
+                return commandeMapper.toResponse(saved);
+            });
+        } catch (RuntimeException | Error ex) {
+            produitCatalogService.releaseReservation(reservationId);
+            throw ex;
+        }
+        commandeMetrics.orderCreated(request.getItems().size());
+        return response;
+    }
+
+    /**
+     * Adds one item per requested line to the order, priced from the product snapshots,
+     * and returns the order total.
+     */
+    static BigDecimal addItems(
+            Commande commande,
+            List<CommandeItemRequest> requestedItems,
+            Map<Long, ProductSnapshot> products,
+            OrderPricing pricing
+    ) {
+        List<CommandeItem> items = new ArrayList<>(requestedItems.size());
+        long totalCents = 0;
+        for (var itemRequest : requestedItems) {
+            ProductSnapshot product = products.get(itemRequest.getProductId());
+            long lineTotalCents = pricing.lineTotal(OrderPricing.toCents(product.getPrice()), itemRequest.getQuantity());
+            totalCents = pricing.add(totalCents, lineTotalCents);
 
             CommandeItem item = new CommandeItem();
             item.setProductId(product.getId());
             item.setQuantity(itemRequest.getQuantity());
-            item.setPrice(price);
+            item.setPrice(product.getPrice());
+            item.setLineTotal(OrderPricing.toAmount(lineTotalCents));
             item.setCommande(commande);
             items.add(item);
         }
-
         commande.setItems(items);
-        commande.setTotalAmount(totalAmount);
-
-        Commande saved = commandeRepository.save(commande);
-        return commandeMapper.toResponse(saved);
+        return OrderPricing.toAmount(totalCents);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CommandeResponse> findAll() {
-        return commandeRepository.findAll()
+        return commandeRepository.findAllWithItems()
                 .stream()
                 .map(commandeMapper::toResponse)
                 .toList();
@@ -84,17 +170,57 @@ public class CommandeServiceImpl implements CommandeService {
     @Override
     @Transactional(readOnly = true)
     public List<CommandeResponse> findByClientId(String clientId) {
-        return commandeRepository.findByClientId(clientId)
+        return commandeRepository.findByClientIdOrderByIdAsc(clientId)
                 .stream()
                 .map(commandeMapper::toResponse)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CommandeResponse> findPage(Long after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return toPage(
+                commandeRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), Limit.of(pageSize + 1)),
+                pageSize
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CommandeResponse> findPageByClientId(String clientId, Long after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        return toPage(
+                commandeRepository.findByClientIdAndIdGreaterThanOrderByIdAsc(clientId, cursor(after), Limit.of(pageSize + 1)),
+                pageSize
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CommandeResponse findById(Long id) {
-        Commande commande = commandeRepository.findById(id)
+        Commande commande = commandeRepository.findWithItemsById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
         return commandeMapper.toResponse(commande);
     }
+
+    private Long cursor(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    private CursorPage<CommandeResponse> toPage(List<Commande> commandes, int pageSize) {
+        boolean hasMore = commandes.size() > pageSize;
+        List<Long> ids = commandes.stream()
+                .limit(pageSize)
+                .map(Commande::getId)
+                .toList();
+        List<CommandeResponse> items = ids.isEmpty()
+                ? List.of()
+                : commandeRepository.fetchItems(ids)
+                        .stream()
+                        .map(commandeMapper::toResponse)
+                        .toList();
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
 }
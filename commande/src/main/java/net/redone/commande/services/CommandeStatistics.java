@@ -0,0 +1,112 @@
+package net.redone.commande.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.redone.commande.dtos.CommandeSummary;
+import net.redone.commande.dtos.StatusCount;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.events.CommandeCreatedEvent;
+import net.redone.commande.repositories.CommandeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Order counters kept up to date as orders are committed, so the dashboard summary
+ * never scans the orders table. A periodic reconciliation against the database
+ * corrects any drift (e.g. orders written by another instance).
+ */
+@Component
+public class CommandeStatistics {
+
+    private final CommandeRepository commandeRepository;
+    private final AtomicLong orderCount = new AtomicLong();
+    private final AtomicLong revenueCents = new AtomicLong();
+    private final Map<String, AtomicLong> ordersByStatus = new ConcurrentHashMap<>();
+
+    public CommandeStatistics(CommandeRepository commandeRepository) {
+        this.commandeRepository = commandeRepository;
+    }
+
+    @TransactionalEventListener
+    public void onCommandeCreated(CommandeCreatedEvent event) {
+        Commande commande = event.getCommande();
+        orderCount.incrementAndGet();
+        revenueCents.addAndGet(toCents(commande.getTotalAmount()));
+        ordersByStatus.computeIfAbsent(commande.getStatus(), status -> new AtomicLong()).incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${commande.summary.reconcile-interval:5m}",
+            fixedDelayString = "${commande.summary.reconcile-interval:5m}"
+    )
+    public void reconcile() {
+        // Snapshot before reading the database, then apply only the difference: an order
+        // counted while the query runs keeps its increment instead of being overwritten.
+        long countBefore = orderCount.get();
+        long centsBefore = revenueCents.get();
+        Map<String, Long> byStatusBefore = new TreeMap<>();
+        ordersByStatus.forEach((status, value) -> byStatusBefore.put(status, value.get()));
+
+        long count = 0;
+        long cents = 0;
+        Map<String, Long> byStatus = new TreeMap<>();
+        for (StatusCount statusCount : commandeRepository.summarizeByStatus()) {
+            count += statusCount.getOrderCount();
+            cents += toCents(statusCount.getRevenue());
+            byStatus.put(statusCount.getStatus(), statusCount.getOrderCount());
+        }
+
+        orderCount.addAndGet(count - countBefore);
+        revenueCents.addAndGet(cents - centsBefore);
+        byStatusBefore.keySet().forEach(status -> byStatus.putIfAbsent(status, 0L));
+        byStatus.forEach((status, value) -> ordersByStatus.computeIfAbsent(status, key -> new AtomicLong())
+                .addAndGet(value - byStatusBefore.getOrDefault(status, 0L)));
+    }
+
+    public CommandeSummary summary() {
+        Map<String, Long> byStatus = new TreeMap<>();
+        ordersByStatus.forEach((status, value) -> {
+            long orders = value.get();
+            if (orders != 0) {
+                byStatus.put(status, orders);
+            }
+        });
+        return toSummary(orderCount.get(), BigDecimal.valueOf(revenueCents.get(), 2), byStatus);
+    }
+
+    public CommandeSummary summaryForClient(String clientId) {
+        return toSummary(commandeRepository.summarizeByStatusForClient(clientId));
+    }
+
+    private CommandeSummary toSummary(List<StatusCount> statusCounts) {
+        long count = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        Map<String, Long> byStatus = new TreeMap<>();
+        for (StatusCount statusCount : statusCounts) {
+            count += statusCount.getOrderCount();
+            revenue = revenue.add(statusCount.getRevenue());
+            byStatus.put(statusCount.getStatus(), statusCount.getOrderCount());
+        }
+        return toSummary(count, revenue, byStatus);
+    }
+
+    private CommandeSummary toSummary(long count, BigDecimal revenue, Map<String, Long> byStatus) {
+        BigDecimal average = count == 0
+                ? BigDecimal.ZERO
+                : revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        return new CommandeSummary(count, revenue, average, byStatus);
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
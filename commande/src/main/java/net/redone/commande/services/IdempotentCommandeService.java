@@ -0,0 +1,181 @@
+package net.redone.commande.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import net.redone.commande.dtos.CommandeCreateRequest;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.entities.IdempotencyKey;
+import net.redone.commande.repositories.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Order creation keyed by the client's {@code Idempotency-Key}. A repeated request gets the
+ * order created by the first one, from memory while it is recent and from the
+ * {@code idempotency_keys} table afterwards, without calling produit again.
+ * Duplicates arriving while the first request is still running wait for its outcome;
+ * across instances the primary key of the table lets only one of them commit.
+ */
+@Service
+public class IdempotentCommandeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentCommandeService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final CommandeService commandeService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration retention;
+    private final Cache<String, Completed> recent;
+    private final ConcurrentHashMap<String, Execution> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentCommandeService(
+            CommandeService commandeService,
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            @Value("${commande.idempotency.retention:24h}") Duration retention,
+            @Value("${commande.idempotency.cache-size:10000}") long cacheSize
+    ) {
+        this.commandeService = commandeService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retention = retention;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    public CommandeResponse create(String authorization, CommandeCreateRequest request, String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters"
+            );
+        }
+        String scope = request.getClientId() + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        Completed completed = recent.getIfPresent(scope);
+        if (completed != null) {
+            checkFingerprint(completed.fingerprint(), fingerprint);
+            return completed.response();
+        }
+        Execution execution = new Execution(fingerprint, new CompletableFuture<>());
+        Execution running = inFlight.putIfAbsent(scope, execution);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            return await(running);
+        }
+        try {
+            CommandeResponse response = execute(authorization, request, scope, fingerprint);
+            recent.put(scope, new Completed(fingerprint, response));
+            execution.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            execution.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(scope, execution);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${commande.idempotency.purge-interval:1h}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * The key row is inserted in the transaction of the order, after produit has been
+     * called, so that no connection is held during those calls. A concurrent duplicate on
+     * another instance also reserves stock, then fails on the primary key when inserting
+     * the row: its order rolls back, its reservation is released, and it replays the
+     * order that committed.
+     */
+    private CommandeResponse execute(
+            String authorization,
+            CommandeCreateRequest request,
+            String scope,
+            String fingerprint
+    ) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(scope);
+        if (stored.isPresent()) {
+            return replay(stored.get(), fingerprint);
+        }
+        try {
+            return commandeService.create(authorization, request, commandeId -> {
+                IdempotencyKey claimed = new IdempotencyKey(scope, fingerprint, LocalDateTime.now());
+                claimed.setCommandeId(commandeId);
+                idempotencyKeyRepository.saveAndFlush(claimed);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            return replay(idempotencyKeyRepository.findById(scope).orElseThrow(() -> ex), fingerprint);
+        }
+    }
+
+    private CommandeResponse replay(IdempotencyKey stored, String fingerprint) {
+        checkFingerprint(stored.getFingerprint(), fingerprint);
+        return commandeService.findById(stored.getCommandeId());
+    }
+
+    private CommandeResponse await(Execution running) {
+        try {
+            return running.result().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNPROCESSABLE_CONTENT,
+                    "Idempotency-Key was already used for a different order"
+            );
+        }
+    }
+
+    private static String fingerprint(CommandeCreateRequest request) {
+        StringBuilder canonical = new StringBuilder(String.valueOf(request.getClientId()));
+        if (request.getItems() != null) {
+            for (CommandeItemRequest item : request.getItems()) {
+                canonical.append('|').append(item.getProductId()).append('x').append(item.getQuantity());
+            }
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private record Execution(String fingerprint, CompletableFuture<CommandeResponse> result) {
+    }
+
+    private record Completed(String fingerprint, CommandeResponse response) {
+    }
+}
@@ -0,0 +1,81 @@
+package net.redone.commande.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import net.redone.commande.dtos.EventMessage;
+import net.redone.commande.dtos.ProductChangedPayload;
+import net.redone.commande.entities.ProcessedEvent;
+import net.redone.commande.repositories.ProcessedEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Applies events relayed by produit. Each event is recorded in the same transaction
+ * that applies it, so a redelivered event is skipped.
+ */
+@Service
+@Transactional
+public class IncomingEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncomingEventService.class);
+
+    static final String PRODUCT_CHANGED = "ProductChanged";
+    private static final String CREATED = "CREATED";
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final ProduitCatalogService produitCatalogService;
+    private final JsonMapper jsonMapper;
+    private final Duration retention;
+
+    public IncomingEventService(
+            ProcessedEventRepository processedEventRepository,
+            ProduitCatalogService produitCatalogService,
+            JsonMapper jsonMapper,
+            @Value("${outbox.retention:7d}") Duration retention
+    ) {
+        this.processedEventRepository = processedEventRepository;
+        this.produitCatalogService = produitCatalogService;
+        this.jsonMapper = jsonMapper;
+        this.retention = retention;
+    }
+
+    public void handle(List<EventMessage> messages) {
+        Set<String> processed = processedEventRepository.findAllById(messages.stream().map(this::key).toList())
+                .stream()
+                .map(ProcessedEvent::getId)
+                .collect(Collectors.toSet());
+        LocalDateTime now = LocalDateTime.now();
+        for (EventMessage message : messages) {
+            String key = key(message);
+            if (!processed.add(key)) {
+                continue;
+            }
+            if (PRODUCT_CHANGED.equals(message.getType())) {
+                ProductChangedPayload payload = jsonMapper.readValue(message.getPayload(), ProductChangedPayload.class);
+                if (!CREATED.equals(payload.getChange())) {
+                    produitCatalogService.invalidate(payload.getProductIds());
+                }
+            } else {
+                logger.debug("Ignoring event {} of type {}", key, message.getType());
+            }
+            processedEventRepository.save(new ProcessedEvent(key, now));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}")
+    public void purgeProcessed() {
+        processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private String key(EventMessage message) {
+        return message.getSource() + ":" + message.getId();
+    }
+}
@@ -0,0 +1,99 @@
+package net.redone.commande.services;
+
+import java.math.BigDecimal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Prices order lines in {@code long} cents. Amounts only become {@link BigDecimal} when they
+ * are stored or returned. Each line gets its own volume discount and tax, rounded half-even
+ * to the cent, so a line total never depends on the other lines of the order.
+ * Any amount past what the {@code numeric(13, 2)} columns hold is rejected with 400.
+ */
+@Component
+public class OrderPricing {
+
+    static final long MAX_AMOUNT_CENTS = 9_999_999_999_999L;
+
+    private static final int BASIS_POINTS = 10_000;
+
+    private final int taxRateBps;
+    private final int volumeDiscountMinQuantity;
+    private final int volumeDiscountBps;
+
+    public OrderPricing(
+            @Value("${commande.pricing.tax-rate-bps:0}") int taxRateBps,
+            @Value("${commande.pricing.volume-discount.min-quantity:0}") int volumeDiscountMinQuantity,
+            @Value("${commande.pricing.volume-discount.rate-bps:0}") int volumeDiscountBps
+    ) {
+        if (taxRateBps < 0 || taxRateBps > BASIS_POINTS || volumeDiscountBps < 0 || volumeDiscountBps > BASIS_POINTS) {
+            throw new IllegalArgumentException("Tax and discount rates must be between 0 and 10000 basis points");
+        }
+        this.taxRateBps = taxRateBps;
+        this.volumeDiscountMinQuantity = volumeDiscountMinQuantity;
+        this.volumeDiscountBps = volumeDiscountBps;
+    }
+
+    /**
+     * Unit price times quantity, less the volume discount when the quantity reaches its
+     * threshold, plus tax on what remains.
+     */
+    public long lineTotal(long unitPriceCents, int quantity) {
+        try {
+            long gross = checked(Math.multiplyExact(unitPriceCents, quantity));
+            long discount = volumeDiscountBps > 0 && quantity >= volumeDiscountMinQuantity
+                    ? share(gross, volumeDiscountBps)
+                    : 0;
+            long net = gross - discount;
+            return checked(net + share(net, taxRateBps));
+        } catch (ArithmeticException ex) {
+            throw tooLarge();
+        }
+    }
+
+    public long add(long totalCents, long lineTotalCents) {
+        return checked(totalCents + lineTotalCents);
+    }
+
+    /**
+     * Reads a price sent by produit, which never has more than two decimals.
+     */
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Invalid price from produit service: " + amount);
+        }
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * {@code amount * bps / 10000} rounded half-even. Does not overflow: amounts are at most
+     * {@link #MAX_AMOUNT_CENTS}, so the product stays below 2^63.
+     */
+    static long share(long amount, int bps) {
+        long scaled = amount * bps;
+        long quotient = scaled / BASIS_POINTS;
+        long twiceRemainder = 2 * (scaled % BASIS_POINTS);
+        if (twiceRemainder > BASIS_POINTS || (twiceRemainder == BASIS_POINTS && (quotient & 1) == 1)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    private static long checked(long cents) {
+        if (cents < 0 || cents > MAX_AMOUNT_CENTS) {
+            throw tooLarge();
+        }
+        return cents;
+    }
+
+    private static ResponseStatusException tooLarge() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order amount exceeds the supported maximum");
+    }
+}
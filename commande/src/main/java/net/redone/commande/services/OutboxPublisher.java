@@ -0,0 +1,13 @@
+package net.redone.commande.services;
+
+import java.util.List;
+import net.redone.commande.dtos.EventMessage;
+
+/**
+ * Delivers a batch of outbox events to their subscribers. Returning normally means the
+ * whole batch was accepted; throwing leaves it in the outbox to be sent again.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<EventMessage> messages);
+}
@@ -0,0 +1,94 @@
+package net.redone.commande.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import net.redone.commande.dtos.EventMessage;
+import net.redone.commande.entities.OutboxEvent;
+import net.redone.commande.repositories.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sends pending outbox events in id order, one batch per transaction. A batch is only
+ * marked published once the subscriber accepted it, so delivery is at least once and a
+ * failed batch is retried, still first in line, on the next run.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String SOURCE = "commande";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            OutboxPublisher outboxPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${outbox.relay.batch-size:100}") int batchSize,
+            @Value("${outbox.retention:7d}") Duration retention
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:500ms}")
+    public void relay() {
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> relayBatch());
+            } while (sent != null && sent == batchSize);
+        } catch (RuntimeException ex) {
+            logger.warn("Outbox relay failed, will retry: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}")
+    @Transactional
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.debug("Purged {} published outbox events", purged);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        outboxPublisher.publish(batch.stream().map(OutboxRelay::toMessage).toList());
+        LocalDateTime publishedAt = LocalDateTime.now();
+        batch.forEach(event -> event.setPublishedAt(publishedAt));
+        return batch.size();
+    }
+
+    private static EventMessage toMessage(OutboxEvent event) {
+        return new EventMessage(
+                SOURCE,
+                event.getId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getType(),
+                event.getPayload(),
+                event.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package net.redone.commande.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import net.redone.commande.entities.OutboxEvent;
+import net.redone.commande.repositories.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Records events in the outbox as part of the caller's transaction, so an event is
+ * relayed exactly when the change it describes is committed.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JsonMapper jsonMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, JsonMapper jsonMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, String aggregateId, String type, Object payload) {
+        // Takes the row locks of the change before an event id is drawn; see OutboxEvent.
+        entityManager.flush();
+        outboxEventRepository.save(new OutboxEvent(
+                null,
+                aggregateType,
+                aggregateId,
+                type,
+                jsonMapper.writeValueAsString(payload),
+                LocalDateTime.now(),
+                null
+        ));
+    }
+}
@@ -0,0 +1,114 @@
+package net.redone.commande.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import net.redone.commande.dtos.CatalogCacheStats;
+import net.redone.commande.dtos.ProductSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded W-TinyLFU cache of product snapshots fetched from produit.
+ * Entries are never served once they are older than the configured staleness window,
+ * and produit invalidates them explicitly when a product changes.
+ * <p>
+ * Loads are single-flight: the first caller to miss a product installs a pending future
+ * and fetches it, and concurrent callers for the same product wait on that future. The
+ * fetch itself runs on the caller's thread, outside the cache's internal locks: it is a
+ * blocking HTTP call, which must not pin a virtual thread's carrier.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private final AsyncCache<Long, ProductSnapshot> cache;
+
+    public ProductSnapshotCache(
+            @Value("${produit.cache.max-size:10000}") long maxSize,
+            @Value("${produit.cache.staleness:30s}") Duration staleness
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(staleness)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public ProductSnapshot get(Long productId, Function<Long, ProductSnapshot> loader) {
+        CompletableFuture<ProductSnapshot> pending = new CompletableFuture<>();
+        CompletableFuture<ProductSnapshot> snapshot = cache.get(productId, (id, executor) -> pending);
+        if (snapshot == pending) {
+            complete(pending, () -> loader.apply(productId));
+        }
+        return join(snapshot);
+    }
+
+    /**
+     * Resolves several products at once; the loader is called at most once, with only the
+     * products that are neither cached nor already being fetched by another caller.
+     */
+    public Map<Long, ProductSnapshot> getAll(
+            Collection<Long> productIds,
+            Function<Set<? extends Long>, Map<Long, ProductSnapshot>> loader
+    ) {
+        Set<Long> missing = new HashSet<>();
+        CompletableFuture<Map<Long, ProductSnapshot>> pending = new CompletableFuture<>();
+        CompletableFuture<Map<Long, ProductSnapshot>> snapshots = cache.getAll(productIds, (ids, executor) -> {
+            missing.addAll(ids);
+            return pending;
+        });
+        if (!missing.isEmpty()) {
+            complete(pending, () -> loader.apply(missing));
+        }
+        return join(snapshots);
+    }
+
+    public void invalidate(Collection<Long> productIds) {
+        cache.synchronous().invalidateAll(productIds);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CatalogCacheStats stats() {
+        Cache<Long, ProductSnapshot> view = cache.synchronous();
+        CacheStats stats = view.stats();
+        return new CatalogCacheStats(
+                view.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.hitRate()
+        );
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> load) {
+        try {
+            future.complete(load.get());
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -1,7 +1,34 @@
 package net.redone.commande.services;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import net.redone.commande.config.InternalToken;
+import net.redone.commande.dtos.CatalogClientStats;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ConnectionPoolStats;
 import net.redone.commande.dtos.ProductSnapshot;
+import net.redone.commande.dtos.StockReservationRequest;
+import net.redone.commande.dtos.StockReservationResponse;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -16,21 +43,154 @@ import org.springframework.http.HttpStatus;
 @Service
 public class ProduitCatalogService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProduitCatalogService.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    /**
+     * How the products missing from the snapshot cache are fetched: {@code BATCH} uses
+     * produit's batch endpoint, {@code PARALLEL} issues one lookup per product concurrently.
+     */
+    public enum LookupMode {
+        BATCH,
+        PARALLEL
+    }
+
+    private static final ParameterizedTypeReference<List<ProductSnapshot>> SNAPSHOT_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
     private final RestTemplate restTemplate;
+    private final ProductSnapshotCache productSnapshotCache;
+    private final PoolingHttpClientConnectionManager produitConnectionManager;
+    private final ProduitClientGuard produitClientGuard;
+    private final CommandeMetrics commandeMetrics;
+    private final InternalToken internalToken;
 
     @Value("${produit.base-url:http://localhost:8081}")
     private String produitBaseUrl;
 
-    public ProduitCatalogService(RestTemplate restTemplate) {
+    @Value("${produit.catalog.lookup-mode:BATCH}")
+    private LookupMode lookupMode;
+
+    @Value("${produit.catalog.lookup-concurrency:8}")
+    private int lookupConcurrency;
+
+    @Value("${produit.catalog.lookup-deadline:3s}")
+    private Duration lookupDeadline;
+
+    public ProduitCatalogService(
+            RestTemplate restTemplate,
+            ProductSnapshotCache productSnapshotCache,
+            PoolingHttpClientConnectionManager produitConnectionManager,
+            ProduitClientGuard produitClientGuard,
+            CommandeMetrics commandeMetrics,
+            InternalToken internalToken
+    ) {
         this.restTemplate = restTemplate;
+        this.productSnapshotCache = productSnapshotCache;
+        this.produitConnectionManager = produitConnectionManager;
+        this.produitClientGuard = produitClientGuard;
+        this.commandeMetrics = commandeMetrics;
+        this.internalToken = internalToken;
     }
 
     public ProductSnapshot getProduct(Long productId, String authorization) {
-        HttpHeaders headers = new HttpHeaders();
-        if (authorization != null && !authorization.isBlank()) {
-            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        return productSnapshotCache.get(productId, id -> fetchProduct(id, authorization));
+    }
+
+    /**
+     * Resolves every distinct product of a cart, serving what it can from the snapshot cache
+     * and fetching the rest with as few calls to produit as possible.
+     * Fails with 404 if any of the requested products does not exist.
+     */
+    public Map<Long, ProductSnapshot> getProducts(Collection<Long> productIds, String authorization) {
+        Set<Long> distinctIds = new LinkedHashSet<>(productIds);
+        Map<Long, ProductSnapshot> products = productSnapshotCache.getAll(
+                distinctIds,
+                missingIds -> fetchProducts(missingIds, authorization)
+        );
+        if (!products.keySet().containsAll(distinctIds)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return products;
+    }
+
+    /**
+     * Atomically takes the requested quantities out of produit's stock.
+     * The returned reservation must later be committed or released. Reservations go to
+     * produit's internal endpoint with the secret shared by the services, not the user's token.
+     */
+    public String reserveStock(List<CommandeItemRequest> items) {
+        return commandeMetrics.timeProduitCall(
+                "reserve",
+                () -> produitClientGuard.write(() -> postReservation(items))
+        );
+    }
+
+    public void releaseReservation(String reservationId) {
+        completeReservation(reservationId, "release");
+    }
+
+    public void invalidate(Collection<Long> productIds) {
+        productSnapshotCache.invalidate(productIds);
+    }
+
+    public void invalidateAll() {
+        productSnapshotCache.invalidateAll();
+    }
+
+    public CatalogClientStats stats() {
+        PoolStats pool = produitConnectionManager.getTotalStats();
+        return new CatalogClientStats(
+                productSnapshotCache.stats(),
+                new ConnectionPoolStats(pool.getLeased(), pool.getPending(), pool.getAvailable(), pool.getMax()),
+                produitClientGuard.stats()
+        );
+    }
+
+    private String postReservation(List<CommandeItemRequest> items) {
+        HttpEntity<StockReservationRequest> entity = new HttpEntity<>(
+                new StockReservationRequest(items),
+                internalHeaders()
+        );
+        try {
+            StockReservationResponse body = restTemplate.postForObject(
+                    produitBaseUrl + "/internal/reservations",
+                    entity,
+                    StockReservationResponse.class
+            );
+            if (body == null || body.getReservationId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Empty response from produit service");
+            }
+            return body.getReservationId();
+        } catch (HttpClientErrorException.Conflict ex) {
+            commandeMetrics.stockRejected();
+            StockReservationResponse rejection = ex.getResponseBodyAs(StockReservationResponse.class);
+            if (rejection == null || rejection.getRejectedProductId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock");
+            }
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Insufficient stock for product " + rejection.getRejectedProductId()
+                            + ". Available: " + rejection.getAvailable()
+            );
+        } catch (HttpClientErrorException.NotFound ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        } catch (RestClientException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Produit service unavailable");
         }
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
+    }
+
+    private ProductSnapshot fetchProduct(Long productId, String authorization) {
+        return commandeMetrics.timeProduitCall(
+                "product",
+                () -> produitClientGuard.read(() -> getProductSnapshot(productId, authorization))
+        );
+    }
+
+    private ProductSnapshot getProductSnapshot(Long productId, String authorization) {
+        HttpEntity<Void> entity = new HttpEntity<>(authorizationHeaders(authorization));
         try {
             ResponseEntity<ProductSnapshot> response = restTemplate.exchange(
                     produitBaseUrl + "/api/produits/{id}",
@@ -50,4 +210,122 @@ public class ProduitCatalogService {
             throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Produit service unavailable");
         }
     }
+
+    private Map<Long, ProductSnapshot> fetchProducts(Collection<? extends Long> productIds, String authorization) {
+        List<Long> ids = new ArrayList<>(productIds);
+        if (lookupMode == LookupMode.PARALLEL && ids.size() > 1) {
+            return fetchConcurrently(ids, authorization);
+        }
+        Map<Long, ProductSnapshot> products = new HashMap<>();
+        HttpEntity<Void> entity = new HttpEntity<>(authorizationHeaders(authorization));
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            for (ProductSnapshot product : fetchBatch(chunk, entity)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Looks the products up one by one on virtual threads, at most {@code lookupConcurrency}
+     * at a time, so the order waits for the slowest lookup rather than their sum.
+     * The first failure, or running past the deadline, cancels the lookups still in flight.
+     */
+    private Map<Long, ProductSnapshot> fetchConcurrently(List<Long> ids, String authorization) {
+        long deadline = System.nanoTime() + lookupDeadline.toNanos();
+        Semaphore permits = new Semaphore(lookupConcurrency);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ExecutorCompletionService<ProductSnapshot> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ProductSnapshot>> lookups = new ArrayList<>(ids.size());
+        try {
+            for (Long id : ids) {
+                lookups.add(completion.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return fetchProduct(id, authorization);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            Map<Long, ProductSnapshot> products = new HashMap<>();
+            for (int received = 0; received < ids.size(); received++) {
+                Future<ProductSnapshot> lookup = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (lookup == null) {
+                    throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Produit service timed out");
+                }
+                ProductSnapshot product = lookup.get();
+                products.put(product.getId(), product);
+            }
+            return products;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ResponseStatusException statusException) {
+                throw statusException;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Produit service unavailable");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } finally {
+            lookups.forEach(lookup -> lookup.cancel(true));
+            executor.shutdownNow();
+        }
+    }
+
+    private List<ProductSnapshot> fetchBatch(List<Long> ids, HttpEntity<Void> entity) {
+        return commandeMetrics.timeProduitCall(
+                "batch",
+                () -> produitClientGuard.read(() -> getProductSnapshots(ids, entity))
+        );
+    }
+
+    private List<ProductSnapshot> getProductSnapshots(List<Long> ids, HttpEntity<Void> entity) {
+        String joinedIds = ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        try {
+            ResponseEntity<List<ProductSnapshot>> response = restTemplate.exchange(
+                    produitBaseUrl + "/api/produits/batch?ids={ids}",
+                    HttpMethod.GET,
+                    entity,
+                    SNAPSHOT_LIST,
+                    joinedIds
+            );
+            List<ProductSnapshot> body = response.getBody();
+            if (body == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Empty response from produit service");
+            }
+            return body;
+        } catch (RestClientException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Produit service unavailable");
+        }
+    }
+
+    private void completeReservation(String reservationId, String action) {
+        try {
+            commandeMetrics.timeProduitCall(action, () -> produitClientGuard.write(() -> restTemplate.postForObject(
+                    produitBaseUrl + "/internal/reservations/{id}/" + action,
+                    new HttpEntity<>(internalHeaders()),
+                    StockReservationResponse.class,
+                    reservationId
+            )));
+        } catch (RestClientException | ResponseStatusException ex) {
+            logger.error("Unable to {} stock reservation {}: {}", action, reservationId, ex.getMessage());
+        }
+    }
+
+    private HttpHeaders internalHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        internalToken.addTo(headers);
+        return headers;
+    }
+
+    private HttpHeaders authorizationHeaders(String authorization) {
+        HttpHeaders headers = new HttpHeaders();
+        if (authorization != null && !authorization.isBlank()) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,318 @@
+package net.redone.commande.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import net.redone.commande.dtos.ResilienceStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Keeps a slow or failing produit from taking commande down with it.
+ * Every call goes through a bulkhead capping the calls in flight and a sliding-window
+ * circuit breaker that stops calling produit while most recent calls fail or are slow;
+ * both reject with 503 straight away instead of queueing request threads.
+ * Reads also run under a deadline and, when hedging is enabled, a read still running
+ * after the recent p95 latency is sent a second time and the first answer wins. The second
+ * attempt needs a bulkhead permit of its own and is skipped when none is free.
+ */
+@Component
+public class ProduitClientGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProduitClientGuard.class);
+
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int P95_REFRESH_INTERVAL = 16;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration callTimeout;
+    private final boolean hedgingEnabled;
+    private final Duration minHedgeDelay;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LatencyWindow latencies = new LatencyWindow();
+    private final LongAdder circuitRejections = new LongAdder();
+    private final LongAdder bulkheadRejections = new LongAdder();
+    private final LongAdder stateTransitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder hedgesSkipped = new LongAdder();
+
+    @Autowired
+    public ProduitClientGuard(
+            @Value("${produit.resilience.sliding-window:50}") int slidingWindow,
+            @Value("${produit.resilience.minimum-calls:20}") int minimumCalls,
+            @Value("${produit.resilience.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${produit.resilience.slow-call-threshold:2s}") Duration slowCallThreshold,
+            @Value("${produit.resilience.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${produit.resilience.open-duration:10s}") Duration openDuration,
+            @Value("${produit.resilience.half-open-calls:5}") int halfOpenCalls,
+            @Value("${produit.resilience.max-concurrent-calls:32}") int maxConcurrentCalls,
+            @Value("${produit.resilience.max-wait:50ms}") Duration maxWait,
+            @Value("${produit.resilience.call-timeout:3s}") Duration callTimeout,
+            @Value("${produit.resilience.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${produit.resilience.hedging.min-delay:20ms}") Duration minHedgeDelay
+    ) {
+        this(
+                CircuitBreakerConfig.custom()
+                        .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                        .slidingWindowSize(slidingWindow)
+                        .minimumNumberOfCalls(minimumCalls)
+                        .failureRateThreshold(failureRateThreshold)
+                        .slowCallDurationThreshold(slowCallThreshold)
+                        .slowCallRateThreshold(slowCallRateThreshold)
+                        .waitDurationInOpenState(openDuration)
+                        .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                        .build(),
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(maxWait)
+                        .build(),
+                callTimeout,
+                hedgingEnabled,
+                minHedgeDelay
+        );
+    }
+
+    ProduitClientGuard(
+            CircuitBreakerConfig circuitBreakerConfig,
+            BulkheadConfig bulkheadConfig,
+            Duration callTimeout,
+            boolean hedgingEnabled,
+            Duration minHedgeDelay
+    ) {
+        // Only produit failing counts against it: 4xx answers are the caller's problem.
+        this.circuitBreaker = CircuitBreaker.of("produit", CircuitBreakerConfig.from(circuitBreakerConfig)
+                .recordException(ProduitClientGuard::isProduitFailure)
+                .build());
+        this.bulkhead = Bulkhead.of("produit", bulkheadConfig);
+        this.callTimeout = callTimeout;
+        this.hedgingEnabled = hedgingEnabled;
+        this.minHedgeDelay = minHedgeDelay;
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            stateTransitions.increment();
+            logger.warn("Produit circuit breaker {}", event.getStateTransition());
+        });
+    }
+
+    /**
+     * Runs an idempotent call: guarded, bounded by the call deadline and hedged when enabled.
+     */
+    public <T> T read(Supplier<T> call) {
+        return guarded(() -> withDeadline(call));
+    }
+
+    /**
+     * Runs a call that must not be repeated: guarded only, and bounded by the HTTP client's
+     * own timeouts since abandoning it would not undo it.
+     */
+    public <T> T write(Supplier<T> call) {
+        return guarded(call);
+    }
+
+    public ResilienceStats stats() {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        return new ResilienceStats(
+                circuitBreaker.getState().name(),
+                metrics.getFailureRate(),
+                metrics.getSlowCallRate(),
+                stateTransitions.sum(),
+                circuitRejections.sum(),
+                bulkhead.getMetrics().getAvailableConcurrentCalls(),
+                bulkheadRejections.sum(),
+                timeouts.sum(),
+                hedges.sum(),
+                hedgeWins.sum(),
+                hedgesSkipped.sum(),
+                TimeUnit.NANOSECONDS.toMillis(latencies.p95())
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+        } catch (CallNotPermittedException ex) {
+            circuitRejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Produit service unavailable");
+        } catch (BulkheadFullException ex) {
+            bulkheadRejections.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Produit service busy");
+        }
+    }
+
+    private <T> T withDeadline(Supplier<T> call) {
+        long deadline = System.nanoTime() + callTimeout.toNanos();
+        BlockingQueue<Future<T>> completion = new LinkedBlockingQueue<>();
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(submit(() -> timed(call), completion, false));
+        try {
+            Future<T> done = null;
+            long hedgeDelay = hedgeDelay();
+            if (hedgeDelay > 0) {
+                done = completion.poll(Math.min(hedgeDelay, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (done == null && System.nanoTime() < deadline) {
+                    if (tryAcquireHedgePermit()) {
+                        attempts.add(submit(() -> timed(call), completion, true));
+                        hedges.increment();
+                    } else {
+                        hedgesSkipped.increment();
+                    }
+                }
+            }
+            int outstanding = attempts.size();
+            while (true) {
+                if (done == null) {
+                    done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if (done == null) {
+                    timeouts.increment();
+                    throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Produit service timed out");
+                }
+                outstanding--;
+                try {
+                    T result = done.get();
+                    if (done != attempts.get(0)) {
+                        hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException ex) {
+                    RuntimeException failure = ex.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Produit service unavailable");
+                    if (outstanding == 0 || !isProduitFailure(failure)) {
+                        throw failure;
+                    }
+                    done = null;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> call, BlockingQueue<Future<T>> completion, boolean holdsPermit) {
+        Attempt<T> attempt = new Attempt<>(call, completion, holdsPermit);
+        executor.execute(attempt);
+        return attempt;
+    }
+
+    /**
+     * Takes a bulkhead permit for a hedge without waiting: the primary attempt already holds
+     * one, and a hedge that has to queue for another is no longer worth sending.
+     */
+    private boolean tryAcquireHedgePermit() {
+        return bulkhead.getMetrics().getAvailableConcurrentCalls() > 0 && bulkhead.tryAcquirePermission();
+    }
+
+    private <T> T timed(Supplier<T> call) {
+        long started = System.nanoTime();
+        T result = call.get();
+        latencies.record(System.nanoTime() - started);
+        return result;
+    }
+
+    /**
+     * Delay after which a read is hedged, or 0 while hedging is off or the latency
+     * window is too small to tell what slow means.
+     */
+    private long hedgeDelay() {
+        if (!hedgingEnabled) {
+            return 0;
+        }
+        long p95 = latencies.p95();
+        return p95 == 0 ? 0 : Math.max(p95, minHedgeDelay.toNanos());
+    }
+
+    private static boolean isProduitFailure(Throwable error) {
+        if (error instanceof ResponseStatusException statusException) {
+            return statusException.getStatusCode().is5xxServerError();
+        }
+        return true;
+    }
+
+    /**
+     * One attempt at a read. Queues itself once done, like the futures of an
+     * ExecutorCompletionService, and gives its bulkhead permit back even when it is
+     * cancelled before it starts.
+     */
+    private final class Attempt<T> extends FutureTask<T> {
+
+        private final BlockingQueue<Future<T>> completion;
+        private final boolean holdsPermit;
+
+        Attempt(Callable<T> call, BlockingQueue<Future<T>> completion, boolean holdsPermit) {
+            super(call);
+            this.completion = completion;
+            this.holdsPermit = holdsPermit;
+        }
+
+        @Override
+        protected void done() {
+            if (holdsPermit) {
+                bulkhead.onComplete();
+            }
+            completion.add(this);
+        }
+    }
+
+    /**
+     * Latencies of the last successful reads, with their 95th percentile recomputed
+     * every few samples.
+     */
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int next;
+        private int count;
+        private volatile long p95;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (count >= MIN_LATENCY_SAMPLES && next % P95_REFRESH_INTERVAL == 0) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                p95 = sorted[(int) Math.ceil(count * 0.95) - 1];
+            }
+        }
+
+        long p95() {
+            return p95;
+        }
+    }
+}
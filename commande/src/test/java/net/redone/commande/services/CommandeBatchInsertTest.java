@@ -0,0 +1,80 @@
+package net.redone.commande.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.entities.CommandeItem;
+import net.redone.commande.repositories.CommandeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the JDBC calls made to insert an order, so that its items stay sent in batches
+ * of {@code hibernate.jdbc.batch_size} with ids drawn from the sequence in blocks.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommandeBatchInsertTest {
+
+    private static final int LARGE_ORDER_ITEMS = 100;
+    private static final String ORDER_INSERT = "insert into commandes ";
+    private static final String ITEM_INSERT = "insert into commande_items ";
+
+    @TestConfiguration
+    static class Counting {
+        @Bean
+        static JdbcExecutionCounter jdbcExecutionCounter() {
+            return new JdbcExecutionCounter();
+        }
+    }
+
+    @Autowired
+    private CommandeRepository commandeRepository;
+
+    @Autowired
+    private JdbcExecutionCounter jdbc;
+
+    @Test
+    void largeOrderIsInsertedInBatches() {
+        // Leaves both id pools started, so the counts below do not depend on the first fetch.
+        commandeRepository.saveAndFlush(order(1));
+
+        jdbc.clear();
+        commandeRepository.saveAndFlush(order(LARGE_ORDER_ITEMS));
+
+        // batch_size=50: one batch for the order, two for its 100 items.
+        assertEquals(
+                List.of(ORDER_INSERT, ITEM_INSERT, ITEM_INSERT),
+                jdbc.batches().stream().map(sql -> sql.substring(0, sql.indexOf('('))).toList()
+        );
+        // allocationSize=50: the order's id comes from the current pool, 49 items are left in the
+        // item pool, and the other 51 items need two more blocks.
+        assertEquals(2, jdbc.sequenceCalls());
+        assertEquals(2, jdbc.executions().size());
+    }
+
+    private static Commande order(int items) {
+        Commande commande = new Commande();
+        commande.setClientId("client-0");
+        commande.setOrderDate(LocalDateTime.now());
+        commande.setStatus("VALIDATED");
+        commande.setTotalAmount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(items)));
+        for (int i = 0; i < items; i++) {
+            CommandeItem item = new CommandeItem();
+            item.setProductId((long) i + 1);
+            item.setQuantity(1);
+            item.setPrice(new BigDecimal("10.00"));
+            item.setCommande(commande);
+            commande.getItems().add(item);
+        }
+        return commande;
+    }
+}
@@ -0,0 +1,162 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.redone.commande.dtos.CommandeCreateRequest;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ProductSnapshot;
+import net.redone.commande.mappers.CommandeMapper;
+import net.redone.commande.repositories.CommandeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Order creation against a Hikari pool smaller than the number of concurrent orders, with
+ * a produit that answers slowly: the orders waiting on produit must not hold connections.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:commande-creation",
+        "spring.datasource.hikari.maximum-pool-size=" + CommandeCreationTest.POOL_SIZE
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CommandeServiceImpl.class, CommandeMapper.class, OrderPricing.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommandeCreationTest {
+
+    static final int POOL_SIZE = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandeCreationTest.class);
+
+    private static final int CONCURRENT_ORDERS = 16;
+    private static final long PRODUIT_LATENCY_MS = 100;
+    private static final Map<Long, ProductSnapshot> PRODUCTS = Map.of(
+            1L, new ProductSnapshot(1L, "Clavier", "", new BigDecimal("20.00"), 10)
+    );
+
+    @Autowired
+    private CommandeService commandeService;
+
+    @Autowired
+    private CommandeRepository commandeRepository;
+
+    @MockitoBean
+    private ProduitCatalogService produitCatalogService;
+
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @MockitoBean
+    private CommandeMetrics commandeMetrics;
+
+    @BeforeEach
+    void setUp() {
+        commandeRepository.deleteAll();
+        when(produitCatalogService.getProducts(anyList(), anyString())).thenReturn(PRODUCTS);
+        when(produitCatalogService.reserveStock(anyList())).thenReturn("reservation-1");
+    }
+
+    @Test
+    void produitIsCalledBeforeTheTransactionStarts() {
+        AtomicReference<Boolean> transactionDuringProduitCalls = new AtomicReference<>(false);
+        when(produitCatalogService.reserveStock(anyList())).thenAnswer(invocation -> {
+            transactionDuringProduitCalls.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return "reservation-1";
+        });
+
+        commandeService.create("Bearer token", request());
+
+        assertThat(transactionDuringProduitCalls.get()).isFalse();
+        assertThat(commandeRepository.count()).isEqualTo(1);
+        verify(commandeMetrics).orderCreated(1);
+        verify(produitCatalogService, never()).releaseReservation(any());
+    }
+
+    @Test
+    void reservationIsReleasedWhenTheOrderIsNotCommitted() {
+        doThrow(new IllegalStateException("outbox unavailable"))
+                .when(outboxService).append(anyString(), anyString(), eq("CommandeCreated"), any());
+
+        assertThatThrownBy(() -> commandeService.create("Bearer token", request()))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(produitCatalogService).releaseReservation("reservation-1");
+        verify(commandeMetrics, never()).orderCreated(anyInt());
+        assertThat(commandeRepository.count()).isZero();
+    }
+
+    @Test
+    void ordersWaitingOnProduitAreNotBoundedByTheConnectionPool() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(produitCatalogService.getProducts(anyList(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(PRODUIT_LATENCY_MS);
+            return PRODUCTS;
+        });
+        when(produitCatalogService.reserveStock(anyList())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(PRODUIT_LATENCY_MS);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return "reservation-1";
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> orders = new ArrayList<>();
+        long elapsedMs;
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_ORDERS)) {
+            for (int i = 0; i < CONCURRENT_ORDERS; i++) {
+                orders.add(executor.submit(() -> {
+                    start.await();
+                    return commandeService.create("Bearer token", request());
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> order : orders) {
+                order.get();
+            }
+            elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+        }
+
+        logger.info("{} concurrent orders with a {} ms produit and {} connections: {} in flight at once, {} ms",
+                CONCURRENT_ORDERS, PRODUIT_LATENCY_MS, POOL_SIZE, peak.get(), elapsedMs);
+        assertThat(commandeRepository.count()).isEqualTo(CONCURRENT_ORDERS);
+        assertThat(peak.get()).isGreaterThan(POOL_SIZE);
+    }
+
+    private static CommandeCreateRequest request() {
+        return new CommandeCreateRequest("client-1", List.of(new CommandeItemRequest(1L, 1)));
+    }
+}
@@ -0,0 +1,122 @@
+package net.redone.commande.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.entities.CommandeItem;
+import net.redone.commande.mappers.CommandeMapper;
+import net.redone.commande.repositories.CommandeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the SQL statements issued by every order listing path, so that loading the
+ * items of N orders can never silently go back to one query per order.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CommandeServiceImpl.class, CommandeMapper.class, OrderPricing.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommandeQueryCountTest {
+
+    private static final int ORDERS = 30;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int MAX_STATEMENTS_PER_LISTING = 2;
+
+    @Autowired
+    private CommandeService commandeService;
+
+    @Autowired
+    private CommandeRepository commandeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private ProduitCatalogService produitCatalogService;
+
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @MockitoBean
+    private CommandeMetrics commandeMetrics;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedOrders() {
+        commandeRepository.deleteAll();
+        List<Commande> commandes = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Commande commande = new Commande();
+            commande.setClientId("client-" + (i % 2));
+            commande.setOrderDate(LocalDateTime.now());
+            commande.setStatus("VALIDATED");
+            commande.setTotalAmount(new BigDecimal("30.00"));
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                CommandeItem item = new CommandeItem();
+                item.setProductId((long) j + 1);
+                item.setQuantity(1);
+                item.setPrice(new BigDecimal("10.00"));
+                item.setCommande(commande);
+                commande.getItems().add(item);
+            }
+            commandes.add(commande);
+        }
+        commandeRepository.saveAll(commandes);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void unpagedListingUsesConstantQueries() {
+        int orders = countStatements(() -> commandeService.findAll()).size();
+        assertEquals(ORDERS, orders);
+    }
+
+    @Test
+    void clientListingUsesConstantQueries() {
+        int orders = countStatements(() -> commandeService.findByClientId("client-0")).size();
+        assertEquals(ORDERS / 2, orders);
+    }
+
+    @Test
+    void keysetPagesUseConstantQueries() {
+        var page = countStatements(() -> commandeService.findPage(null, ORDERS));
+        assertEquals(ORDERS, page.getItems().size());
+        page.getItems().forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+
+        var clientPage = countStatements(() -> commandeService.findPageByClientId("client-1", null, 10));
+        assertEquals(10, clientPage.getItems().size());
+    }
+
+    @Test
+    void singleOrderUsesOneQuery() {
+        Long id = commandeRepository.findAll().get(0).getId();
+        assertEquals(ITEMS_PER_ORDER, countStatements(() -> commandeService.findById(id)).getItems().size());
+    }
+
+    private <T> T countStatements(Supplier<T> listing) {
+        statistics.clear();
+        T result = listing.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(
+                statements <= MAX_STATEMENTS_PER_LISTING,
+                "Expected at most " + MAX_STATEMENTS_PER_LISTING + " statements but got " + statements
+        );
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import net.redone.commande.dtos.CommandeSummary;
+import net.redone.commande.dtos.StatusCount;
+import net.redone.commande.entities.Commande;
+import net.redone.commande.events.CommandeCreatedEvent;
+import net.redone.commande.repositories.CommandeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CommandeStatisticsTest {
+
+    @Autowired
+    private CommandeRepository commandeRepository;
+
+    @BeforeEach
+    void seedOrders() {
+        commandeRepository.deleteAll();
+        commandeRepository.saveAll(List.of(
+                order("alice", "VALIDATED", "10.00"),
+                order("alice", "VALIDATED", "20.50"),
+                order("alice", "CANCELLED", "5.00"),
+                order("bob", "VALIDATED", "100.00")
+        ));
+    }
+
+    @Test
+    void summaryQueriesAggregateCountAndRevenueByStatus() {
+        assertThat(commandeRepository.summarizeByStatus())
+                .extracting(StatusCount::getStatus, StatusCount::getOrderCount, count -> count.getRevenue().setScale(2))
+                .containsExactlyInAnyOrder(
+                        tuple("VALIDATED", 3L, new BigDecimal("130.50")),
+                        tuple("CANCELLED", 1L, new BigDecimal("5.00"))
+                );
+        assertThat(commandeRepository.summarizeByStatusForClient("alice"))
+                .extracting(StatusCount::getStatus, StatusCount::getOrderCount, count -> count.getRevenue().setScale(2))
+                .containsExactlyInAnyOrder(
+                        tuple("VALIDATED", 2L, new BigDecimal("30.50")),
+                        tuple("CANCELLED", 1L, new BigDecimal("5.00"))
+                );
+        assertThat(commandeRepository.summarizeByStatusForClient("nobody")).isEmpty();
+    }
+
+    @Test
+    void summariesMatchTheDatabase() {
+        CommandeStatistics statistics = new CommandeStatistics(commandeRepository);
+        statistics.reconcile();
+
+        CommandeSummary summary = statistics.summary();
+        assertThat(summary.getOrderCount()).isEqualTo(4);
+        assertThat(summary.getRevenue()).isEqualByComparingTo("135.50");
+        assertThat(summary.getAverageBasket()).isEqualByComparingTo("33.88");
+        assertThat(summary.getOrdersByStatus()).isEqualTo(Map.of("CANCELLED", 1L, "VALIDATED", 3L));
+
+        CommandeSummary alice = statistics.summaryForClient("alice");
+        assertThat(alice.getOrderCount()).isEqualTo(3);
+        assertThat(alice.getRevenue()).isEqualByComparingTo("35.50");
+        assertThat(alice.getAverageBasket()).isEqualByComparingTo("11.83");
+        assertThat(statistics.summaryForClient("nobody").getAverageBasket()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void reconcileKeepsOrdersCountedWhileItQueries() {
+        CommandeRepository repository = mock(CommandeRepository.class);
+        CommandeStatistics statistics = new CommandeStatistics(repository);
+        statistics.onCommandeCreated(new CommandeCreatedEvent(order("alice", "VALIDATED", "10.00")));
+        statistics.onCommandeCreated(new CommandeCreatedEvent(order("alice", "PENDING", "1.00")));
+        when(repository.summarizeByStatus()).thenAnswer(invocation -> {
+            // Committed after the query's snapshot: counted by the listener, not by the database.
+            statistics.onCommandeCreated(new CommandeCreatedEvent(order("bob", "VALIDATED", "7.00")));
+            return List.of(new StatusCount("VALIDATED", 3L, new BigDecimal("40.00")));
+        });
+
+        statistics.reconcile();
+
+        CommandeSummary summary = statistics.summary();
+        assertThat(summary.getOrderCount()).isEqualTo(4);
+        assertThat(summary.getRevenue()).isEqualByComparingTo("47.00");
+        assertThat(summary.getOrdersByStatus()).isEqualTo(Map.of("VALIDATED", 4L));
+    }
+
+    private static Commande order(String clientId, String status, String amount) {
+        Commande commande = new Commande();
+        commande.setClientId(clientId);
+        commande.setOrderDate(LocalDateTime.now());
+        commande.setStatus(status);
+        commande.setTotalAmount(new BigDecimal(amount));
+        return commande;
+    }
+}
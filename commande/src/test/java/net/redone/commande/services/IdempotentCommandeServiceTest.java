@@ -0,0 +1,142 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import net.redone.commande.dtos.CommandeCreateRequest;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.CommandeResponse;
+import net.redone.commande.repositories.IdempotencyKeyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@DataJpaTest
+@Import(IdempotentCommandeService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotentCommandeServiceTest {
+
+    private static final int DUPLICATES = 8;
+
+    @Autowired
+    private IdempotentCommandeService idempotentCommandeService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @MockitoBean
+    private CommandeService commandeService;
+
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        when(commandeService.create(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            long id = nextId.incrementAndGet();
+            invocation.<Consumer<Long>>getArgument(2).accept(id);
+            return response(id);
+        });
+        when(commandeService.findById(any())).thenAnswer(invocation -> response(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentDuplicatesCollapseIntoOneOrder() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CommandeResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES)) {
+            for (int i = 0; i < DUPLICATES; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return idempotentCommandeService.create("Bearer token", request(2), "key-1");
+                }));
+            }
+            start.countDown();
+            for (Future<CommandeResponse> response : responses) {
+                assertThat(response.get().getId()).isEqualTo(101L);
+            }
+        }
+        verify(commandeService, times(1)).create(any(), any(), any());
+        assertThat(idempotencyKeyRepository.findById("client-1:key-1").orElseThrow().getCommandeId())
+                .isEqualTo(101L);
+    }
+
+    @Test
+    void replayAfterRestartReadsTheStoredOrderWithoutRecreatingIt() {
+        CommandeResponse first = idempotentCommandeService.create("Bearer token", request(2), "key-2");
+
+        IdempotentCommandeService restarted = new IdempotentCommandeService(
+                commandeService,
+                idempotencyKeyRepository,
+                Duration.ofHours(24),
+                100
+        );
+        CommandeResponse replayed = restarted.create("Bearer token", request(2), "key-2");
+
+        assertThat(replayed.getId()).isEqualTo(first.getId());
+        verify(commandeService, times(1)).create(any(), any(), any());
+        verify(commandeService).findById(first.getId());
+    }
+
+    @Test
+    void reusingAKeyForADifferentOrderIsRejected() {
+        idempotentCommandeService.create("Bearer token", request(2), "key-3");
+
+        assertThatThrownBy(() -> idempotentCommandeService.create("Bearer token", request(3), "key-3"))
+                .isInstanceOfSatisfying(ResponseStatusException.class, ex ->
+                        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+        verify(commandeService, times(1)).create(any(), any(), any());
+    }
+
+    @Test
+    void failedAttemptsAreNotRemembered() {
+        doThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Insufficient stock"))
+                .doReturn(response(200L))
+                .when(commandeService).create(any(), any(), any());
+
+        assertThatThrownBy(() -> idempotentCommandeService.create("Bearer token", request(2), "key-4"))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(idempotencyKeyRepository.existsById("client-1:key-4")).isFalse();
+
+        assertThat(idempotentCommandeService.create("Bearer token", request(2), "key-4").getId()).isEqualTo(200L);
+        verify(commandeService, never()).findById(any());
+    }
+
+    private static CommandeCreateRequest request(int quantity) {
+        return new CommandeCreateRequest("client-1", List.of(new CommandeItemRequest(1L, quantity)));
+    }
+
+    private static CommandeResponse response(Long id) {
+        return new CommandeResponse(id, "client-1", LocalDateTime.now(), "VALIDATED", BigDecimal.TEN, List.of());
+    }
+}
@@ -0,0 +1,77 @@
+package net.redone.commande.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import net.redone.commande.dtos.EventMessage;
+import net.redone.commande.repositories.ProcessedEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest
+@Import({IncomingEventService.class, IncomingEventServiceTest.Json.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IncomingEventServiceTest {
+
+    @Autowired
+    private IncomingEventService incomingEventService;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @MockitoBean
+    private ProduitCatalogService produitCatalogService;
+
+    @AfterEach
+    void tearDown() {
+        processedEventRepository.deleteAll();
+    }
+
+    @Test
+    void appliesEachEventOnceAcrossRedeliveries() {
+        List<EventMessage> batch = List.of(
+                message(1L, "{\"productIds\":[7],\"change\":\"SAVED\"}"),
+                message(2L, "{\"productIds\":[8,9],\"change\":\"DELETED\"}")
+        );
+
+        incomingEventService.handle(batch);
+        incomingEventService.handle(batch);
+        incomingEventService.handle(List.of(batch.get(0), batch.get(0)));
+
+        verify(produitCatalogService, times(1)).invalidate(List.of(7L));
+        verify(produitCatalogService, times(1)).invalidate(List.of(8L, 9L));
+    }
+
+    @Test
+    void ignoresCreatedProducts() {
+        incomingEventService.handle(List.of(message(3L, "{\"productIds\":[10],\"change\":\"CREATED\"}")));
+
+        verify(produitCatalogService, never()).invalidate(any());
+    }
+
+    private static EventMessage message(Long id, String payload) {
+        return new EventMessage("produit", id, "Product", "7", "ProductChanged", payload, LocalDateTime.now());
+    }
+
+    @TestConfiguration
+    static class Json {
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.redone.commande.services;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Wraps the test DataSource to record what is actually sent to the database: one entry per
+ * {@code executeBatch} and per single statement execution, unlike Hibernate's prepared
+ * statement count, which says nothing about how many times a statement ran.
+ */
+class JdbcExecutionCounter implements BeanPostProcessor {
+
+    private final List<String> batches = new CopyOnWriteArrayList<>();
+    private final List<String> executions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? proxy(Connection.class, connection, this::connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    void clear() {
+        batches.clear();
+        executions.clear();
+    }
+
+    /**
+     * SQL of every executed batch, in order.
+     */
+    List<String> batches() {
+        return List.copyOf(batches);
+    }
+
+    /**
+     * SQL of every statement executed on its own, in order.
+     */
+    List<String> executions() {
+        return List.copyOf(executions);
+    }
+
+    long sequenceCalls() {
+        return executions.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.contains("next value for") || sql.contains("nextval"))
+                .count();
+    }
+
+    private Object connection(Object target, Method method, Object[] args) throws Exception {
+        Object result = method.invoke(target, args);
+        if (result instanceof Statement statement) {
+            String sql = method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")
+                    ? (String) args[0]
+                    : null;
+            return proxy(method.getReturnType(), statement, (stmt, call, callArgs) -> {
+                String name = call.getName();
+                if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                    batches.add(sql);
+                } else if (name.startsWith("execute")) {
+                    executions.add(sql != null ? sql : (String) callArgs[0]);
+                }
+                return call.invoke(stmt, callArgs);
+            });
+        }
+        return result;
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Exception;
+    }
+
+    private static Object proxy(Class<?> type, Object target, Handler handler) {
+        InvocationHandler invocation = (proxy, method, args) -> {
+            try {
+                return handler.handle(target, method, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocation);
+    }
+}
@@ -0,0 +1,76 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ProductSnapshot;
+import net.redone.commande.entities.Commande;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class OrderPricingTest {
+
+    @Test
+    void pricesLinesAndOrderInCents() {
+        Commande commande = new Commande();
+        Map<Long, ProductSnapshot> products = Map.of(
+                1L, new ProductSnapshot(1L, "Clavier", "", new BigDecimal("19.99"), 10),
+                2L, new ProductSnapshot(2L, "Souris", "", new BigDecimal("5"), 10)
+        );
+
+        BigDecimal total = CommandeServiceImpl.addItems(
+                commande,
+                List.of(new CommandeItemRequest(1L, 3), new CommandeItemRequest(2L, 2)),
+                products,
+                new OrderPricing(0, 0, 0)
+        );
+
+        assertThat(total).isEqualTo(new BigDecimal("69.97"));
+        assertThat(commande.getItems()).extracting(item -> item.getLineTotal().toPlainString())
+                .containsExactly("59.97", "10.00");
+        assertThat(commande.getItems().get(1).getPrice()).isEqualTo(new BigDecimal("5"));
+    }
+
+    @Test
+    void appliesVolumeDiscountThenTaxPerLineRoundingHalfEven() {
+        // 10% off from 5 units, then 20% tax.
+        OrderPricing pricing = new OrderPricing(2_000, 5, 1_000);
+
+        // Below the threshold: 3 x 0.25 = 0.75, tax 0.15.
+        assertThat(pricing.lineTotal(25, 3)).isEqualTo(90);
+        // 5 x 0.25 = 1.25, discount 0.125 -> 0.12 (half-even), net 1.13, tax 0.226 -> 0.23.
+        assertThat(pricing.lineTotal(25, 5)).isEqualTo(136);
+        // 7 x 0.25 = 1.75, discount 0.175 -> 0.18 (half-even), net 1.57, tax 0.314 -> 0.31.
+        assertThat(pricing.lineTotal(25, 7)).isEqualTo(188);
+    }
+
+    @Test
+    void rejectsAmountsBeyondTheStoredPrecision() {
+        OrderPricing pricing = new OrderPricing(0, 0, 0);
+
+        assertThat(pricing.lineTotal(OrderPricing.MAX_AMOUNT_CENTS, 1)).isEqualTo(OrderPricing.MAX_AMOUNT_CENTS);
+        assertThatThrownBy(() -> pricing.lineTotal(OrderPricing.MAX_AMOUNT_CENTS, 2))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> pricing.lineTotal(Long.MAX_VALUE / 2, 3))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> pricing.add(OrderPricing.MAX_AMOUNT_CENTS, 1))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void convertsAtTheBoundary() {
+        assertThat(OrderPricing.toCents(new BigDecimal("12"))).isEqualTo(1_200);
+        assertThat(OrderPricing.toCents(new BigDecimal("12.5"))).isEqualTo(1_250);
+        assertThat(OrderPricing.toCents(new BigDecimal("12.34"))).isEqualTo(1_234);
+        assertThat(OrderPricing.toAmount(1_234)).isEqualTo(new BigDecimal("12.34"));
+        assertThatThrownBy(() -> OrderPricing.toCents(new BigDecimal("12.345")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+}
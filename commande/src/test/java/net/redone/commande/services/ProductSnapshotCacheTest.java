@@ -0,0 +1,108 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import net.redone.commande.dtos.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class ProductSnapshotCacheTest {
+
+    private static final int CALLERS = 16;
+
+    private final ProductSnapshotCache cache = new ProductSnapshotCache(100, Duration.ofSeconds(30));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void concurrentMissesOnOneProductLoadItOnce() throws Exception {
+        List<ProductSnapshot> results = concurrently(() -> cache.get(7L, id -> {
+            loads.incrementAndGet();
+            await(release);
+            return snapshot(id);
+        }));
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).hasSize(CALLERS).allSatisfy(snapshot -> assertThat(snapshot).isSameAs(results.getFirst()));
+    }
+
+    @Test
+    void concurrentBatchesLoadEachMissingProductOnce() throws Exception {
+        AtomicInteger loadedProducts = new AtomicInteger();
+        List<Map<Long, ProductSnapshot>> results = concurrently(() -> cache.getAll(List.of(1L, 2L, 3L), ids -> {
+            loads.incrementAndGet();
+            loadedProducts.addAndGet(ids.size());
+            await(release);
+            return ids.stream().collect(Collectors.toMap(id -> id, ProductSnapshotCacheTest::snapshot));
+        }));
+
+        assertThat(loadedProducts).hasValue(3);
+        assertThat(results).allSatisfy(products -> assertThat(products).containsOnlyKeys(1L, 2L, 3L));
+        assertThat(cache.getAll(Set.of(2L, 4L), ids -> Map.of(4L, snapshot(4L)))).containsOnlyKeys(2L, 4L);
+    }
+
+    @Test
+    void failedLoadsAreSharedButNotCached() {
+        release.countDown();
+        assertThatThrownBy(() -> cache.get(9L, id -> {
+            loads.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        })).isInstanceOf(ResponseStatusException.class);
+
+        assertThat(cache.get(9L, ProductSnapshotCacheTest::snapshot).getId()).isEqualTo(9L);
+        assertThat(loads).hasValue(1);
+    }
+
+    /**
+     * Runs the call from many threads at once and lets the loader finish only once they
+     * have all been started.
+     */
+    private <T> List<T> concurrently(Callable<T> call) throws Exception {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return call.call();
+                }));
+            }
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            release.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ProductSnapshot snapshot(Long id) {
+        return new ProductSnapshot(id, "Product " + id, "", new BigDecimal("10.00"), 5);
+    }
+}
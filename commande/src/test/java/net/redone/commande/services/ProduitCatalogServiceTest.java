@@ -0,0 +1,158 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import net.redone.commande.config.InternalToken;
+import net.redone.commande.dtos.CommandeItemRequest;
+import net.redone.commande.dtos.ProductSnapshot;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+class ProduitCatalogServiceTest {
+
+    private static final long LOOKUP_DELAY_MS = 1000;
+
+    private HttpServer produit;
+    private ProduitCatalogService catalog;
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final List<String> reservationHeaders = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        produit = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        produit.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        produit.createContext("/api/produits/", this::lookup);
+        produit.createContext("/internal/reservations", this::rejectReservation);
+        produit.start();
+
+        catalog = new ProduitCatalogService(
+                new RestTemplate(),
+                new ProductSnapshotCache(100, Duration.ofSeconds(30)),
+                new PoolingHttpClientConnectionManager(),
+                new ProduitClientGuard(
+                        CircuitBreakerConfig.ofDefaults(),
+                        BulkheadConfig.ofDefaults(),
+                        Duration.ofSeconds(5),
+                        false,
+                        Duration.ZERO
+                ),
+                new CommandeMetrics(registry),
+                new InternalToken("test-secret")
+        );
+        ReflectionTestUtils.setField(catalog, "produitBaseUrl", "http://127.0.0.1:" + produit.getAddress().getPort());
+        ReflectionTestUtils.setField(catalog, "lookupMode", ProduitCatalogService.LookupMode.PARALLEL);
+        ReflectionTestUtils.setField(catalog, "lookupConcurrency", 8);
+        ReflectionTestUtils.setField(catalog, "lookupDeadline", Duration.ofSeconds(3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        produit.stop(0);
+    }
+
+    @Test
+    void resolvesDistinctProductsConcurrently() {
+        long started = System.nanoTime();
+        Map<Long, ProductSnapshot> products = catalog.getProducts(List.of(1L, 2L, 3L, 4L, 5L, 6L, 2L), "Bearer abc");
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(products).containsOnlyKeys(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(products.get(4L).getName()).isEqualTo("Product 4");
+        assertThat(elapsedMs).isLessThan(LOOKUP_DELAY_MS * 3);
+        assertThat(authorizations).hasSize(6).containsOnly("Bearer abc");
+        assertThat(registry.get("produit.client.requests").tags("operation", "product", "outcome", "SUCCESS").timer().count())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void failsFastAndCancelsOutstandingLookups() {
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> catalog.getProducts(List.of(1L, 404L, 2L, 3L), "Bearer abc"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(LOOKUP_DELAY_MS);
+    }
+
+    @Test
+    void givesUpAtTheDeadline() {
+        ReflectionTestUtils.setField(catalog, "lookupDeadline", Duration.ofMillis(200));
+
+        assertThatThrownBy(() -> catalog.getProducts(List.of(1L, 2L), "Bearer abc"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    @Test
+    void countsStockRejections() {
+        assertThatThrownBy(() -> catalog.reserveStock(List.of(new CommandeItemRequest(3L, 10))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getReason()).isEqualTo("Insufficient stock for product 3. Available: 1"));
+
+        assertThat(registry.get("commande.stock.rejections").counter().count()).isEqualTo(1);
+        assertThat(registry.get("produit.client.requests").tags("operation", "reserve", "outcome", "CLIENT_ERROR").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reservesWithTheInternalTokenRatherThanTheUserToken() {
+        assertThatThrownBy(() -> catalog.reserveStock(List.of(new CommandeItemRequest(3L, 10))))
+                .isInstanceOf(ResponseStatusException.class);
+
+        assertThat(reservationHeaders).containsExactly("test-secret", null);
+    }
+
+    private void rejectReservation(HttpExchange exchange) throws IOException {
+        reservationHeaders.add(exchange.getRequestHeaders().getFirst("X-Internal-Token"));
+        reservationHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        byte[] body = "{\"rejectedProductId\":3,\"available\":1}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(409, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private void lookup(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        if (id == 404L) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        try {
+            Thread.sleep(LOOKUP_DELAY_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = ("{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"description\":\"\","
+                + "\"price\":10.00,\"quantity\":5}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
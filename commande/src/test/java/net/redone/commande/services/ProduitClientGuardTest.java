@@ -0,0 +1,248 @@
+package net.redone.commande.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.redone.commande.config.InternalToken;
+import net.redone.commande.dtos.ResilienceStats;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+class ProduitClientGuardTest {
+
+    private static final long SLOW_ID = 999L;
+
+    private HttpServer produit;
+    private ProduitClientGuard guard;
+    private ProduitCatalogService catalog;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ConcurrentHashMap<Long, AtomicInteger> attemptsById = new ConcurrentHashMap<>();
+    private volatile int status = 200;
+    private volatile long delayMs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        produit = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        produit.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        produit.createContext("/api/produits/", this::lookup);
+        produit.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        produit.stop(0);
+        guard.shutdown();
+    }
+
+    @Test
+    void opensTheCircuitAfterRepeatedFailuresAndStopsCallingProduit() {
+        useGuard(2, Duration.ofSeconds(2), false);
+        status = 500;
+
+        for (long id = 1; id <= 5; id++) {
+            assertStatus(id, HttpStatus.BAD_GATEWAY);
+        }
+        assertStatus(6L, HttpStatus.SERVICE_UNAVAILABLE);
+
+        ResilienceStats stats = guard.stats();
+        assertThat(requests).hasValue(5);
+        assertThat(stats.getCircuitState()).isEqualTo("OPEN");
+        assertThat(stats.getCircuitRejections()).isEqualTo(1);
+        assertThat(stats.getStateTransitions()).isEqualTo(1);
+    }
+
+    @Test
+    void notFoundDoesNotCountAgainstProduit() {
+        useGuard(2, Duration.ofSeconds(2), false);
+        status = 404;
+
+        for (long id = 1; id <= 10; id++) {
+            assertStatus(id, HttpStatus.NOT_FOUND);
+        }
+
+        assertThat(guard.stats().getCircuitState()).isEqualTo("CLOSED");
+        assertThat(requests).hasValue(10);
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheConcurrencyLimit() throws Exception {
+        useGuard(2, Duration.ofSeconds(2), false);
+        delayMs = 500;
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id = 1; id <= 6; id++) {
+                long productId = id;
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return catalog.getProduct(productId, "Bearer abc");
+                }));
+            }
+            start.countDown();
+            int rejected = 0;
+            for (Future<?> call : calls) {
+                try {
+                    call.get();
+                } catch (ExecutionException ex) {
+                    assertThat(((ResponseStatusException) ex.getCause()).getStatusCode())
+                            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    rejected++;
+                }
+            }
+            assertThat(rejected).isEqualTo(4);
+        }
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+        assertThat(guard.stats().getBulkheadRejections()).isEqualTo(4);
+    }
+
+    @Test
+    void readsGiveUpAtTheCallTimeout() {
+        useGuard(2, Duration.ofMillis(200), false);
+        delayMs = 2000;
+
+        long started = System.nanoTime();
+        assertStatus(1L, HttpStatus.GATEWAY_TIMEOUT);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMs).isLessThan(delayMs);
+        assertThat(guard.stats().getTimeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgedReadAnswersFromTheSecondAttemptWhenTheFirstStalls() {
+        useGuard(4, Duration.ofSeconds(5), true);
+        delayMs = 5;
+        for (long id = 1; id <= 32; id++) {
+            catalog.getProduct(id, "Bearer abc");
+        }
+
+        long started = System.nanoTime();
+        assertThat(catalog.getProduct(SLOW_ID, "Bearer abc").getId()).isEqualTo(SLOW_ID);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        ResilienceStats stats = guard.stats();
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(attemptsById.get(SLOW_ID)).hasValue(2);
+        assertThat(stats.getHedges()).isEqualTo(1);
+        assertThat(stats.getHedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeIsSkippedWhenTheBulkheadHasNoPermitLeft() {
+        useGuard(1, Duration.ofSeconds(5), true);
+        delayMs = 5;
+        for (long id = 1; id <= 32; id++) {
+            catalog.getProduct(id, "Bearer abc");
+        }
+
+        assertThat(catalog.getProduct(SLOW_ID, "Bearer abc").getId()).isEqualTo(SLOW_ID);
+
+        ResilienceStats stats = guard.stats();
+        assertThat(attemptsById.get(SLOW_ID)).hasValue(1);
+        assertThat(maxInFlight.get()).isEqualTo(1);
+        assertThat(stats.getHedges()).isZero();
+        assertThat(stats.getHedgesSkipped()).isEqualTo(1);
+        assertThat(stats.getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeGivesItsPermitBack() {
+        useGuard(2, Duration.ofSeconds(5), true);
+        delayMs = 5;
+        for (long id = 1; id <= 32; id++) {
+            catalog.getProduct(id, "Bearer abc");
+        }
+
+        catalog.getProduct(SLOW_ID, "Bearer abc");
+
+        assertThat(guard.stats().getHedges()).isEqualTo(1);
+        assertThat(guard.stats().getAvailableConcurrentCalls()).isEqualTo(2);
+    }
+
+    private void useGuard(int maxConcurrentCalls, Duration callTimeout, boolean hedging) {
+        guard = new ProduitClientGuard(
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(10)
+                        .minimumNumberOfCalls(5)
+                        .failureRateThreshold(50)
+                        .waitDurationInOpenState(Duration.ofMinutes(1))
+                        .build(),
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build(),
+                callTimeout,
+                hedging,
+                Duration.ofMillis(20)
+        );
+        catalog = new ProduitCatalogService(
+                new RestTemplate(),
+                new ProductSnapshotCache(100, Duration.ofSeconds(30)),
+                new PoolingHttpClientConnectionManager(),
+                guard,
+                new CommandeMetrics(new SimpleMeterRegistry()),
+                new InternalToken("test-secret")
+        );
+        ReflectionTestUtils.setField(catalog, "produitBaseUrl", "http://127.0.0.1:" + produit.getAddress().getPort());
+    }
+
+    private void assertStatus(long productId, HttpStatusCode expected) {
+        assertThatThrownBy(() -> catalog.getProduct(productId, "Bearer abc"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(expected));
+    }
+
+    private void lookup(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+        requests.incrementAndGet();
+        int attempt = attemptsById.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(id == SLOW_ID && attempt == 1 ? 3000 : delayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (status != 200) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = ("{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"description\":\"\","
+                + "\"price\":10.00,\"quantity\":5}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -38,8 +38,34 @@ async function request(path, options = {}, token) {
   return payload
 }
 
+function pageQuery(after, limit) {
+  const params = new URLSearchParams()
+  if (after != null) {
+    params.set('after', after)
+  }
+  if (limit != null) {
+    params.set('limit', limit)
+  }
+  return params.toString()
+}
+
 export const api = {
-  listProducts: (token) => request('/api/produits', { method: 'GET' }, token),
+  listProducts: (token) => request('/api/produits?unpaged=true', { method: 'GET' }, token),
+  listProductsPage: (after, limit, token) =>
+    request(`/api/produits?${pageQuery(after, limit)}`, { method: 'GET' }, token),
+  searchProducts: (query, limit, token) =>
+    request(
+      `/api/produits/search?${new URLSearchParams({ q: query, limit: limit ?? 20 })}`,
+      { method: 'GET' },
+      token,
+    ),
+  autocompleteProducts: (prefix, limit, token) =>
+    request(
+      `/api/produits/autocomplete?${new URLSearchParams({ prefix, limit: limit ?? 10 })}`,
+      { method: 'GET' },
+      token,
+    ),
+  productSummary: (token) => request('/api/produits/summary', { method: 'GET' }, token),
   getProduct: (id, token) => request(`/api/produits/${id}`, { method: 'GET' }, token),
   createProduct: (data, token) =>
     request('/api/produits', { method: 'POST', body: JSON.stringify(data) }, token),
@@ -59,9 +85,24 @@ export const api = {
       token,
     )
   },
-  listCommandes: (token) => request('/api/commandes', { method: 'GET' }, token),
+  listCommandes: (token) => request('/api/commandes?unpaged=true', { method: 'GET' }, token),
+  listCommandesPage: (after, limit, token) =>
+    request(`/api/commandes?${pageQuery(after, limit)}`, { method: 'GET' }, token),
   listCommandesByClient: (clientId, token) =>
-    request(`/api/commandes/client/${clientId}`, { method: 'GET' }, token),
-  createCommande: (data, token) =>
-    request('/api/commandes', { method: 'POST', body: JSON.stringify(data) }, token),
+    request(`/api/commandes/client/${clientId}?unpaged=true`, { method: 'GET' }, token),
+  listCommandesByClientPage: (clientId, after, limit, token) =>
+    request(`/api/commandes/client/${clientId}?${pageQuery(after, limit)}`, { method: 'GET' }, token),
+  commandeSummary: (token) => request('/api/commandes/summary', { method: 'GET' }, token),
+  commandeSummaryByClient: (clientId, token) =>
+    request(`/api/commandes/client/${clientId}/summary`, { method: 'GET' }, token),
+  createCommande: (data, token, idempotencyKey) =>
+    request(
+      '/api/commandes',
+      {
+        method: 'POST',
+        body: JSON.stringify(data),
+        headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : undefined,
+      },
+      token,
+    ),
 }
@@ -20,25 +20,23 @@ export default function Dashboard() {
       setError(null)
       try {
         const token = await getValidToken()
-        const products = await api.listProducts(token)
-        const commands = isAdmin
-          ? await api.listCommandes(token)
-          : await api.listCommandesByClient(username, token)
-
-        const totalValue = commands.reduce(
-          (sum, cmd) => sum + Number(cmd.totalAmount || 0),
-          0,
-        )
-        const lowStock = products.filter((p) => Number(p.quantity) < 5).length
+        const [productSummary, commandSummary, productPage, commandPage] = await Promise.all([
+          api.productSummary(token),
+          isAdmin ? api.commandeSummary(token) : api.commandeSummaryByClient(username, token),
+          api.listProductsPage(null, 5, token),
+          isAdmin
+            ? api.listCommandesPage(null, 5, token)
+            : api.listCommandesByClientPage(username, null, 5, token),
+        ])
 
         setStats({
-          products: products.length,
-          commands: commands.length,
-          totalValue,
-          lowStock,
+          products: productSummary.productCount,
+          commands: commandSummary.orderCount,
+          totalValue: Number(commandSummary.revenue || 0),
+          lowStock: productSummary.lowStockCount,
         })
-        setRecentProducts(products.slice(0, 5))
-        setRecentCommands(commands.slice(0, 5))
+        setRecentProducts(productPage.items)
+        setRecentCommands(commandPage.items)
       } catch (err) {
         setError(err.message || 'Unable to load dashboard stats')
       }
@@ -1,4 +1,4 @@
-import React, { useEffect, useMemo, useState } from 'react'
+import React, { useEffect, useMemo, useRef, useState } from 'react'
 import { api } from '../api.js'
 import { useAuth } from '../auth/AuthContext.jsx'
 import gadgetOne from '../assets/catalog/gadget-1.svg'
@@ -27,6 +27,8 @@ export default function Products() {
   const [cart, setCart] = useState([])
   const [quantities, setQuantities] = useState({})
   const [showOrder, setShowOrder] = useState(false)
+  // Reused when the same cart is submitted again, so a retried order is created once.
+  const orderKey = useRef(null)
   const [showForm, setShowForm] = useState(false)
 
   const isAdmin = hasRole('ADMIN')
@@ -159,12 +161,17 @@ export default function Products() {
     setCart((prev) => prev.filter((item) => item.productId !== productId))
   }
 
+  useEffect(() => {
+    orderKey.current = null
+  }, [cart])
+
   const placeOrder = async () => {
     setError(null)
     if (cart.length === 0) {
       setError('Add products to your cart')
       return
     }
+    orderKey.current ??= crypto.randomUUID()
     try {
       const token = await getValidToken()
       await api.createCommande(
@@ -176,6 +183,7 @@ export default function Products() {
           })),
         },
         token,
+        orderKey.current,
       )
       setCart([])
       setQuantities({})
@@ -282,7 +290,7 @@ export default function Products() {
                   <div className="product-card" key={product.id}>
                     <div className="product-image">
                     <img
-                      src={`${import.meta.env.VITE_API_BASE_URL || 'http://localhost:8888'}/catalog/${product.id}.jpg`}
+                      src={`${import.meta.env.VITE_API_BASE_URL || 'http://localhost:8888'}/catalog/${product.id}.jpg?w=400`}
                       onError={(event) => {
                         event.currentTarget.onerror = null
                         event.currentTarget.src = productImages[index % productImages.length]
@@ -346,7 +354,7 @@ export default function Products() {
                 <div className="product-card" key={product.id}>
                   <div className="product-image">
                     <img
-                      src={`${import.meta.env.VITE_API_BASE_URL || 'http://localhost:8888'}/catalog/${product.id}.jpg`}
+                      src={`${import.meta.env.VITE_API_BASE_URL || 'http://localhost:8888'}/catalog/${product.id}.jpg?w=400`}
                       onError={(event) => {
                         event.currentTarget.onerror = null
                         event.currentTarget.src = productImages[index % productImages.length]
@@ -0,0 +1,32 @@
+package net.redone.gatewayservice;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Deterministic data shared by the benchmarks, shaped like what the gateway handles in production.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A Keycloak access token carrying realm roles and roles for two clients.
+     */
+    public static Jwt keycloakToken() {
+        return Jwt.withTokenValue("benchmark-token")
+                .header("alg", "RS256")
+                .subject("3f1c2b9e-5d4a-4c1e-9a8b-0f2e6d7c5b4a")
+                .claim("preferred_username", "client1")
+                .claim("realm_access", Map.of(
+                        "roles", List.of("CLIENT", "offline_access", "uma_authorization", "default-roles-gestion")
+                ))
+                .claim("resource_access", Map.of(
+                        "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+                        "frontend", Map.of("roles", List.of("CLIENT"))
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package net.redone.gatewayservice.config;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import net.redone.gatewayservice.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Walking the Keycloak role claims of a token, uncached and through the per-token cache
+ * that the authentication converter consults on every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractRolesBenchmark {
+
+    private final SecurityConfig securityConfig = new SecurityConfig();
+    private Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = securityConfig.jwtAuthenticationConverter();
+        jwt = BenchmarkFixtures.keycloakToken();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> extractRoles() {
+        return securityConfig.extractRoles(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertCachedToken() {
+        return converter.convert(jwt).block();
+    }
+}
@@ -0,0 +1,128 @@
+package net.redone.gatewayservice.filters;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import net.redone.gatewayservice.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-request cost of rate limiting: the bucket itself, for one hot client, across many
+ * clients and once the client is over its limit, and the whole filter compared with
+ * passing the same exchange straight down the chain. The {@code Contended} variants run
+ * on {@value #CONTENDED_THREADS} threads, sharing one client's bucket or spread over
+ * distinct clients.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    static final int CONTENDED_THREADS = 8;
+    private static final int CLIENTS = 10_000;
+
+    // A second of burst: threads preempted between reading the clock and taking the permit
+    // must not be turned away when eight of them share one core.
+    private final ClientRateLimiter unlimited = new ClientRateLimiter(1e9, 1_000_000_000, Duration.ofMinutes(5));
+    private final ClientRateLimiter exhausted = new ClientRateLimiter(1, 1, Duration.ofMinutes(5));
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+    private RateLimitGatewayFilter filter;
+    private MockServerWebExchange exchange;
+    private String[] clients;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitGatewayFilter(unlimited, Set.of());
+        exchange = MockServerWebExchange.builder(MockServerHttpRequest.get("/api/produits"))
+                .principal(new JwtAuthenticationToken(BenchmarkFixtures.keycloakToken()))
+                .build();
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "user:client-" + i;
+            unlimited.tryAcquire(clients[i]);
+        }
+        exhausted.tryAcquire("user:client1");
+    }
+
+    @Benchmark
+    public long tryAcquireOneClient() {
+        return unlimited.tryAcquire("user:client1");
+    }
+
+    @Benchmark
+    public long tryAcquireManyClients() {
+        return unlimited.tryAcquire(clients[next++ % CLIENTS]);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public long tryAcquireOneClientContended() {
+        return unlimited.tryAcquire("user:client1");
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public long tryAcquireManyClientsContended(Cursor cursor) {
+        return unlimited.tryAcquire(clients[cursor.next()]);
+    }
+
+    @Benchmark
+    public long tryAcquireOverLimit() {
+        return exhausted.tryAcquire("user:client1");
+    }
+
+    @Benchmark
+    public Void passThrough() {
+        return chain.filter(exchange).block();
+    }
+
+    @Benchmark
+    public Void rateLimitFilter() {
+        return filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Void rateLimitFilterContended() {
+        return filter.filter(exchange, chain).block();
+    }
+
+    /**
+     * Position of one thread in the client list, each thread starting at its own offset.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        @Setup
+        public void setUp() {
+            next = ThreadLocalRandom.current().nextInt(CLIENTS);
+        }
+
+        int next() {
+            next = next + 1 == CLIENTS ? 0 : next + 1;
+            return next;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package net.redone.gatewayservice.config;
 
+import java.time.Duration;
+import java.util.Set;
+import net.redone.gatewayservice.filters.CatalogResponseCacheFilter;
+import net.redone.gatewayservice.filters.ClientRateLimiter;
+import net.redone.gatewayservice.filters.LoadSheddingGatewayFilter;
+import net.redone.gatewayservice.filters.RateLimitGatewayFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 
 @Configuration
 public class GatewayRoutesConfig {
@@ -12,25 +19,94 @@ public class GatewayRoutesConfig {
     @Bean
     public RouteLocator gatewayRoutes(
             RouteLocatorBuilder builder,
+            CatalogResponseCacheFilter catalogResponseCache,
+            RateLimitGatewayFilter produitRateLimit,
+            RateLimitGatewayFilter commandeReadRateLimit,
+            RateLimitGatewayFilter commandeWriteRateLimit,
+            LoadSheddingGatewayFilter produitLoadShedding,
+            LoadSheddingGatewayFilter commandeLoadShedding,
             @Value("${services.produit-url:http://localhost:8081}") String produitUrl,
             @Value("${services.commande-url:http://localhost:8082}") String commandeUrl
     ) {
         return builder.routes()
                 .route("produit-base", route -> route
                         .path("/api/produits")
+                        .filters(filters -> filters
+                                .filter(produitRateLimit)
+                                .filter(catalogResponseCache)
+                                .filter(produitLoadShedding))
                         .uri(produitUrl))
                 .route("produit-service", route -> route
                         .path("/api/produits/**")
+                        .filters(filters -> filters
+                                .filter(produitRateLimit)
+                                .filter(catalogResponseCache)
+                                .filter(produitLoadShedding))
                         .uri(produitUrl))
                 .route("commande-base", route -> route
                         .path("/api/commandes")
+                        .filters(filters -> filters
+                                .filter(commandeReadRateLimit)
+                                .filter(commandeWriteRateLimit)
+                                .filter(commandeLoadShedding))
                         .uri(commandeUrl))
                 .route("commande-service", route -> route
                         .path("/api/commandes/**")
+                        .filters(filters -> filters
+                                .filter(commandeReadRateLimit)
+                                .filter(commandeWriteRateLimit)
+                                .filter(commandeLoadShedding))
                         .uri(commandeUrl))
                 .route("catalog-images", route -> route
                         .path("/catalog/**")
                         .uri(produitUrl))
                 .build();
     }
+
+    @Bean
+    public RateLimitGatewayFilter produitRateLimit(
+            @Value("${gateway.rate-limit.produit.permits-per-second:50}") double permitsPerSecond,
+            @Value("${gateway.rate-limit.produit.burst:100}") int burst,
+            @Value("${gateway.rate-limit.idle-timeout:5m}") Duration idleTimeout
+    ) {
+        return new RateLimitGatewayFilter(new ClientRateLimiter(permitsPerSecond, burst, idleTimeout), Set.of());
+    }
+
+    @Bean
+    public RateLimitGatewayFilter commandeReadRateLimit(
+            @Value("${gateway.rate-limit.commande-reads.permits-per-second:20}") double permitsPerSecond,
+            @Value("${gateway.rate-limit.commande-reads.burst:40}") int burst,
+            @Value("${gateway.rate-limit.idle-timeout:5m}") Duration idleTimeout
+    ) {
+        return new RateLimitGatewayFilter(
+                new ClientRateLimiter(permitsPerSecond, burst, idleTimeout),
+                Set.of(HttpMethod.GET)
+        );
+    }
+
+    @Bean
+    public RateLimitGatewayFilter commandeWriteRateLimit(
+            @Value("${gateway.rate-limit.commande-writes.permits-per-second:2}") double permitsPerSecond,
+            @Value("${gateway.rate-limit.commande-writes.burst:5}") int burst,
+            @Value("${gateway.rate-limit.idle-timeout:5m}") Duration idleTimeout
+    ) {
+        return new RateLimitGatewayFilter(
+                new ClientRateLimiter(permitsPerSecond, burst, idleTimeout),
+                Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE)
+        );
+    }
+
+    @Bean
+    public LoadSheddingGatewayFilter produitLoadShedding(
+            @Value("${gateway.load-shedding.produit.max-in-flight:256}") int maxInFlight
+    ) {
+        return new LoadSheddingGatewayFilter(maxInFlight);
+    }
+
+    @Bean
+    public LoadSheddingGatewayFilter commandeLoadShedding(
+            @Value("${gateway.load-shedding.commande.max-in-flight:128}") int maxInFlight
+    ) {
+        return new LoadSheddingGatewayFilter(maxInFlight);
+    }
 }
@@ -1,11 +1,16 @@
 package net.redone.gatewayservice.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -15,6 +20,7 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
@@ -25,6 +31,12 @@ import reactor.core.publisher.Mono;
 @Configuration
 public class SecurityConfig {
 
+    // Keyed by identity: the decoder cache hands out the same Jwt for every request carrying a token.
+    private final Cache<Jwt, Collection<GrantedAuthority>> authoritiesByToken = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
     @Bean
     public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
         return http
@@ -45,6 +57,7 @@ public class SecurityConfig {
                         .pathMatchers(HttpMethod.GET, "/catalog/**").permitAll()
                         .pathMatchers(HttpMethod.POST, "/api/commandes").hasRole("CLIENT")
                         .pathMatchers(HttpMethod.POST, "/api/commandes/**").hasRole("CLIENT")
+                        .pathMatchers(HttpMethod.GET, "/api/commandes/export", "/api/commandes/summary").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.GET, "/api/commandes/client/**").hasRole("CLIENT")
                         .pathMatchers(HttpMethod.GET, "/api/commandes").hasRole("ADMIN")
                         .pathMatchers(HttpMethod.GET, "/api/commandes/**").hasAnyRole("ADMIN", "CLIENT")
@@ -71,11 +84,27 @@ public class SecurityConfig {
     @Bean
     public Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter() {
         JwtAuthenticationConverter delegate = new JwtAuthenticationConverter();
-        delegate.setJwtGrantedAuthoritiesConverter(this::extractRoles);
+        delegate.setJwtGrantedAuthoritiesConverter(jwt -> authoritiesByToken.get(jwt, this::extractRoles));
         return jwt -> Mono.justOrEmpty(delegate.convert(jwt));
     }
 
-    private Collection<GrantedAuthority> extractRoles(Jwt jwt) {
+    @Bean
+    public static BeanPostProcessor cachingJwtDecoderPostProcessor(
+            @Value("${security.jwt.cache.max-size:10000}") long maxSize,
+            @Value("${security.jwt.cache.max-ttl:10m}") Duration maxTtl
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ReactiveJwtDecoder decoder && !(bean instanceof CachingReactiveJwtDecoder)) {
+                    return new CachingReactiveJwtDecoder(decoder, maxSize, maxTtl);
+                }
+                return bean;
+            }
+        };
+    }
+
+    Collection<GrantedAuthority> extractRoles(Jwt jwt) {
         Set<String> roleNames = new HashSet<>();
 
         Object realmAccess = jwt.getClaim("realm_access");
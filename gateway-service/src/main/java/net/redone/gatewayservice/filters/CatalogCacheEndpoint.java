@@ -0,0 +1,25 @@
+package net.redone.gatewayservice.filters;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size and hit ratio of the gateway's catalog response cache, at {@code /actuator/catalogcache}.
+ */
+@Component
+@Endpoint(id = "catalogcache")
+public class CatalogCacheEndpoint {
+
+    private final CatalogResponseCacheFilter catalogResponseCacheFilter;
+
+    public CatalogCacheEndpoint(CatalogResponseCacheFilter catalogResponseCacheFilter) {
+        this.catalogResponseCacheFilter = catalogResponseCacheFilter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return catalogResponseCacheFilter.stats();
+    }
+}
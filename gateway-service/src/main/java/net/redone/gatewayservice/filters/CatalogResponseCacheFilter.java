@@ -0,0 +1,270 @@
+package net.redone.gatewayservice.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared cache of successful catalog reads, applied to the produit routes.
+ * Responses are cached only when upstream allows it through {@code s-maxage} or
+ * {@code max-age}, for at most that long, and are keyed by the caller's roles and the
+ * request path and query. Any write to the catalog that passes through the gateway
+ * empties the cache once it completes.
+ */
+@Component
+public class CatalogResponseCacheFilter implements GatewayFilter, Ordered {
+
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.SET_COOKIE,
+            HttpHeaders.DATE
+    );
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(
+            HttpMethod.POST,
+            HttpMethod.PUT,
+            HttpMethod.PATCH,
+            HttpMethod.DELETE
+    );
+
+    private final Cache<String, CachedResponse> cache;
+    private final Duration maxTtl;
+    private final long maxEntryBytes;
+    // Bumped on every write so that reads started before it never repopulate the cache.
+    private final AtomicLong generation = new AtomicLong();
+
+    public CatalogResponseCacheFilter(
+            @Value("${gateway.cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gateway.cache.max-entry-size:1MB}") DataSize maxEntrySize,
+            @Value("${gateway.cache.max-ttl:5m}") Duration maxTtl
+    ) {
+        this.maxTtl = maxTtl;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body.length)
+                .expireAfter(Expiry.creating((String key, CachedResponse response) -> response.ttl))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (WRITE_METHODS.contains(method)) {
+            return chain.filter(exchange).doFinally(signal -> invalidateAll());
+        }
+        if (!HttpMethod.GET.equals(method)) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+                .map(CatalogResponseCacheFilter::roles)
+                .defaultIfEmpty("")
+                .flatMap(roles -> {
+                    String key = cacheKey(roles, exchange.getRequest());
+                    CachedResponse cached = cache.getIfPresent(key);
+                    if (cached != null) {
+                        return writeCached(exchange, cached);
+                    }
+                    ServerHttpResponse response = new CapturingResponse(exchange.getResponse(), key, generation.get());
+                    return chain.filter(exchange.mutate().response(response).build());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter writes the upstream body to it.
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("weightBytes", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers);
+        response.getHeaders().set("X-Cache", "HIT");
+        String etag = cached.headers.getETag();
+        if (etag != null && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body)));
+    }
+
+    /**
+     * How long upstream lets a shared cache keep this response, or null if it must not be cached.
+     */
+    private Duration sharedTtl(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || "*".equals(headers.getFirst(HttpHeaders.VARY))) {
+            return null;
+        }
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String token = directive.trim();
+            if (token.equals("no-store") || token.equals("no-cache") || token.equals("private")) {
+                return null;
+            }
+            if (token.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(token.substring("s-maxage=".length()));
+            } else if (token.startsWith("max-age=")) {
+                maxAge = parseSeconds(token.substring("max-age=".length()));
+            }
+        }
+        Long seconds = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        if (seconds == null || seconds <= 0) {
+            return null;
+        }
+        Duration ttl = Duration.ofSeconds(seconds);
+        return ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String cacheKey(String roles, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return roles + " " + (query == null ? path : path + "?" + query);
+    }
+
+    private static String roles(Principal principal) {
+        if (!(principal instanceof Authentication authentication)) {
+            return "";
+        }
+        return authentication.getAuthorities()
+                .stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static final class CachedResponse {
+
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final Duration ttl;
+
+        private CachedResponse(HttpHeaders headers, byte[] body, Duration ttl) {
+            this.headers = headers;
+            this.body = body;
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Copies the upstream body while it streams to the client and stores it once complete,
+     * giving up as soon as it grows past the per-entry limit.
+     */
+    private final class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final long startedAt;
+
+        private CapturingResponse(ServerHttpResponse delegate, String key, long startedAt) {
+            super(delegate);
+            this.key = key;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration ttl = HttpStatus.OK.equals(getStatusCode()) ? sharedTtl(getHeaders()) : null;
+            long declaredLength = getHeaders().getContentLength();
+            if (ttl == null || declaredLength > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.put(name, values);
+                }
+            });
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = {false};
+            Flux<? extends DataBuffer> tapped = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (overflow[0]) {
+                            return;
+                        }
+                        if (copy.size() + buffer.readableByteCount() > maxEntryBytes) {
+                            overflow[0] = true;
+                            copy.reset();
+                            return;
+                        }
+                        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                            while (iterator.hasNext()) {
+                                ByteBuffer chunk = iterator.next();
+                                byte[] bytes = new byte[chunk.remaining()];
+                                chunk.get(bytes);
+                                copy.writeBytes(bytes);
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0] && generation.get() == startedAt) {
+                            cache.put(key, new CachedResponse(headers, copy.toByteArray(), ttl));
+                        }
+                    });
+            return super.writeWith(tapped);
+        }
+    }
+}
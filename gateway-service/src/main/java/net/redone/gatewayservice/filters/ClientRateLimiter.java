@@ -0,0 +1,69 @@
+package net.redone.gatewayservice.filters;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Lock-free per-client token bucket, in its GCRA form: each client is a single
+ * {@link AtomicLong} holding the time at which its bucket will be full again, so
+ * admitting a request is one compare-and-set.
+ * Buckets that have been full for longer than the idle timeout are dropped by a sweep
+ * running once per idle timeout on Reactor's parallel scheduler, never on a request.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(double permitsPerSecond, int burst, Duration idleTimeout) {
+        this(permitsPerSecond, burst, idleTimeout, System::nanoTime);
+        Schedulers.parallel().schedulePeriodically(this::sweep, idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, Duration idleTimeout, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.round(1_000_000_000d / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.idleNanos = idleTimeout.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one permit for the client.
+     *
+     * @return 0 if the request is admitted, otherwise how many nanoseconds the client has to wait
+     */
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        AtomicLong fullAt = buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, now);
+            long wait = base - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    void sweep() {
+        long now = clock.getAsLong();
+        buckets.entrySet().removeIf(entry -> now - entry.getValue().get() > idleNanos);
+    }
+}
@@ -0,0 +1,73 @@
+package net.redone.gatewayservice.filters;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rejects with 429 the requests of a client that exceeds its rate on a route.
+ * Clients are identified by their {@code preferred_username}, then their JWT subject,
+ * and by remote address when the request is anonymous.
+ */
+public class RateLimitGatewayFilter implements GatewayFilter, Ordered {
+
+    private final ClientRateLimiter rateLimiter;
+    private final Set<HttpMethod> methods;
+
+    /**
+     * @param methods the methods the limit applies to, or an empty set for all of them
+     */
+    public RateLimitGatewayFilter(ClientRateLimiter rateLimiter, Set<HttpMethod> methods) {
+        this.rateLimiter = rateLimiter;
+        this.methods = methods;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!methods.isEmpty() && !methods.contains(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+                .map(RateLimitGatewayFilter::clientKey)
+                .switchIfEmpty(Mono.fromSupplier(() -> remoteKey(exchange)))
+                .flatMap(client -> {
+                    long waitNanos = rateLimiter.tryAcquire(client);
+                    if (waitNanos == 0) {
+                        return chain.filter(exchange);
+                    }
+                    long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+    }
+
+    private static String clientKey(Principal principal) {
+        if (principal instanceof JwtAuthenticationToken token) {
+            String username = token.getToken().getClaimAsString("preferred_username");
+            return "user:" + (username != null ? username : token.getName());
+        }
+        return "user:" + principal.getName();
+    }
+
+    private static String remoteKey(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (address == null || address.getAddress() == null ? "unknown" : address.getAddress().getHostAddress());
+    }
+}
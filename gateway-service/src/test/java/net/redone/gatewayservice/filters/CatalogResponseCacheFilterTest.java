@@ -0,0 +1,97 @@
+package net.redone.gatewayservice.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+class CatalogResponseCacheFilterTest {
+
+    private final CatalogResponseCacheFilter filter = new CatalogResponseCacheFilter(
+            DataSize.ofMegabytes(1),
+            DataSize.ofKilobytes(4),
+            Duration.ofMinutes(5)
+    );
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private String cacheControl = "max-age=0, s-maxage=30";
+    private String body = "[{\"id\":1}]";
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        MockServerWebExchange first = get("/api/produits/1");
+        MockServerWebExchange second = get("/api/produits/1");
+
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(body);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(body);
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(filter.stats()).containsEntry("size", 1L).containsEntry("hitCount", 1L);
+
+        get("/api/produits/1?after=5");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWith304() {
+        get("/api/produits/1");
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/produits/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""));
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void writesEmptyTheCache() {
+        get("/api/produits/1");
+        exchange(MockServerHttpRequest.put("/api/produits/1"));
+        get("/api/produits/1");
+
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    @Test
+    void honoursUpstreamCacheControlAndEntrySizeLimit() {
+        cacheControl = "no-cache, no-store, max-age=0, must-revalidate";
+        get("/api/produits/1");
+        get("/api/produits/1");
+        assertThat(upstreamCalls).hasValue(2);
+
+        cacheControl = "max-age=0, s-maxage=30";
+        body = "x".repeat(5000);
+        get("/api/produits");
+        MockServerWebExchange again = get("/api/produits");
+        assertThat(again.getResponse().getBodyAsString().block()).hasSize(5000);
+        assertThat(upstreamCalls).hasValue(4);
+    }
+
+    private MockServerWebExchange get(String path) {
+        return exchange(MockServerHttpRequest.get(path));
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain upstream = forwarded -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = forwarded.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().setETag("\"v1\"");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        };
+        filter.filter(exchange, upstream).block();
+        return exchange;
+    }
+}
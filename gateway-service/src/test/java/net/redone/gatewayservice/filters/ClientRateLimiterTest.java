@@ -0,0 +1,63 @@
+package net.redone.gatewayservice.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final ClientRateLimiter limiter = new ClientRateLimiter(2, 3, Duration.ofMinutes(1), now::get);
+
+    @Test
+    void admitsABurstThenAsksToWaitOneEmissionInterval() {
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.tryAcquire("bob")).isZero();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+
+    @Test
+    void dropsBucketsThatStayedIdle() {
+        limiter.tryAcquire("alice");
+        limiter.tryAcquire("bob");
+        assertThat(limiter.size()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(3));
+        limiter.tryAcquire("carol");
+        assertThat(limiter.size()).isEqualTo(3);
+
+        limiter.sweep();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void neverAdmitsMoreThanTheBurstUnderContention() throws Exception {
+        ClientRateLimiter frozen = new ClientRateLimiter(1, 100, Duration.ofMinutes(1), () -> 0L);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            pool.submit(() -> {
+                for (int attempt = 0; attempt < 1000; attempt++) {
+                    if (frozen.tryAcquire("alice") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(admitted).hasValue(100);
+    }
+}
@@ -0,0 +1,110 @@
+package net.redone.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcomes of one scenario during the measured window: an HDR histogram of response times
+ * and counts by kind of answer. Safe to record into from many threads.
+ */
+final class EndpointRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointRecorder(String name) {
+        this.name = name;
+    }
+
+    void response(int status, long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        if (status == 429) {
+            rateLimited.increment();
+        } else if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            ok.increment();
+        }
+    }
+
+    void transportError() {
+        transportErrors.increment();
+    }
+
+    /**
+     * A request that was due but not sent because too many were already in flight.
+     */
+    void dropped() {
+        dropped.increment();
+    }
+
+    EndpointStats stats(double measuredSeconds) {
+        return stats(name, latencies, measuredSeconds, ok.sum(), rateLimited.sum(), clientErrors.sum(),
+                serverErrors.sum(), transportErrors.sum(), dropped.sum());
+    }
+
+    static EndpointStats total(Iterable<EndpointRecorder> recorders, double measuredSeconds) {
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        long ok = 0;
+        long rateLimited = 0;
+        long clientErrors = 0;
+        long serverErrors = 0;
+        long transportErrors = 0;
+        long dropped = 0;
+        for (EndpointRecorder recorder : recorders) {
+            all.add(recorder.latencies);
+            ok += recorder.ok.sum();
+            rateLimited += recorder.rateLimited.sum();
+            clientErrors += recorder.clientErrors.sum();
+            serverErrors += recorder.serverErrors.sum();
+            transportErrors += recorder.transportErrors.sum();
+            dropped += recorder.dropped.sum();
+        }
+        return stats("all", all, measuredSeconds, ok, rateLimited, clientErrors, serverErrors, transportErrors, dropped);
+    }
+
+    private static EndpointStats stats(
+            String name,
+            Histogram latencies,
+            double measuredSeconds,
+            long ok,
+            long rateLimited,
+            long clientErrors,
+            long serverErrors,
+            long transportErrors,
+            long dropped
+    ) {
+        long requests = ok + rateLimited + clientErrors + serverErrors + transportErrors + dropped;
+        return new EndpointStats(
+                name,
+                requests,
+                latencies.getTotalCount() / measuredSeconds,
+                ok,
+                rateLimited,
+                clientErrors,
+                serverErrors,
+                transportErrors,
+                dropped,
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue())
+        );
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,22 @@
+package net.redone.loadtest;
+
+/**
+ * Summary of one scenario over the measured window. Latencies are in milliseconds and
+ * measured from the time each request was due, not from when it was actually sent.
+ */
+record EndpointStats(
+        String endpoint,
+        long requests,
+        double throughput,
+        long ok,
+        long rateLimited,
+        long clientErrors,
+        long serverErrors,
+        long transportErrors,
+        long dropped,
+        double p50Ms,
+        double p99Ms,
+        double p999Ms,
+        double maxMs
+) {
+}
@@ -0,0 +1,94 @@
+package net.redone.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stands in for Keycloak: publishes an OpenID discovery document and a JWK set under a
+ * realm path, and signs access tokens shaped like Keycloak's, with the realm roles the
+ * services read.
+ */
+final class JwtIssuerStub implements AutoCloseable {
+
+    private static final String REALM_PATH = "/realms/loadtest";
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(12);
+
+    private final RSAKey key;
+    private final JWSSigner signer;
+    private final HttpServer server;
+    private final String issuer;
+
+    JwtIssuerStub() throws IOException, JOSEException {
+        key = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        signer = new RSASSASigner(key);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        issuer = "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+        String discovery = "{\"issuer\":\"" + issuer + "\","
+                + "\"jwks_uri\":\"" + issuer + "/protocol/openid-connect/certs\","
+                + "\"subject_types_supported\":[\"public\"],"
+                + "\"id_token_signing_alg_values_supported\":[\"RS256\"]}";
+        String jwks = new JWKSet(key.toPublicJWK()).toString();
+        server.createContext(REALM_PATH + "/.well-known/openid-configuration", exchange -> json(exchange, discovery));
+        server.createContext(REALM_PATH + "/protocol/openid-connect/certs", exchange -> json(exchange, jwks));
+        server.start();
+    }
+
+    String issuer() {
+        return issuer;
+    }
+
+    String token(String username, String... roles) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(UUID.nameUUIDFromBytes(username.getBytes(StandardCharsets.UTF_8)).toString())
+                .claim("preferred_username", username)
+                .claim("realm_access", Map.of("roles", List.of(roles)))
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(TOKEN_LIFETIME)))
+                .build();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+                claims
+        );
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Unable to sign a token for " + username, ex);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void json(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
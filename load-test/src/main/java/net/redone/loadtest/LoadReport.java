@@ -0,0 +1,43 @@
+package net.redone.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * What a run measured, printed as a table and kept as JSON so runs can be compared.
+ */
+record LoadReport(
+        Instant startedAt,
+        double targetRate,
+        long warmupSeconds,
+        long durationSeconds,
+        List<EndpointStats> endpoints
+) {
+
+    void print(PrintStream out) {
+        out.printf("Open-loop run at %.1f req/s for %ds (after %ds of warm-up); latencies in ms%n",
+                targetRate, durationSeconds, warmupSeconds);
+        out.printf("%-10s %9s %9s %8s %6s %6s %6s %6s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "2xx", "429", "4xx", "5xx", "io", "dropped",
+                "p50", "p99", "p99.9", "max");
+        for (EndpointStats stats : endpoints) {
+            out.printf("%-10s %9d %9.1f %8d %6d %6d %6d %6d %7d %9.2f %9.2f %9.2f %9.2f%n",
+                    stats.endpoint(), stats.requests(), stats.throughput(), stats.ok(), stats.rateLimited(),
+                    stats.clientErrors(), stats.serverErrors(), stats.transportErrors(), stats.dropped(),
+                    stats.p50Ms(), stats.p99Ms(), stats.p999Ms(), stats.maxMs());
+        }
+    }
+
+    void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+    }
+}
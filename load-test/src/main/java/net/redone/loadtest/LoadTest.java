@@ -0,0 +1,258 @@
+package net.redone.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Function;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Boots produit, commande and the gateway against in-memory databases and a local token
+ * issuer, seeds the catalog, then drives the configured scenario mix through the gateway
+ * with an {@link OpenLoopGenerator}.
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(180);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 20;
+    private static final String[] WORDS = {
+            "clavier", "souris", "ecran", "casque", "chargeur", "cable", "lampe", "chaise",
+            "bureau", "sac", "bouteille", "montre", "enceinte", "tapis", "stylo", "carnet"
+    };
+    private static final String[] QUALIFIERS = {
+            "noir", "blanc", "rouge", "bleu", "compact", "sans fil", "premium", "pliable"
+    };
+
+    private final LoadTestSettings settings;
+    private final HttpClient client;
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final String internalSecret = UUID.randomUUID().toString();
+
+    private LoadTest(LoadTestSettings settings, HttpClient client) {
+        this.settings = settings;
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        LoadReport report = new LoadTest(settings, client).run();
+        report.print(System.out);
+        report.write(settings.report());
+        System.out.println("Report written to " + settings.report().toAbsolutePath());
+    }
+
+    private LoadReport run() throws Exception {
+        Path root = settings.repositoryRoot();
+        Path logs = Path.of("target", "loadtest");
+        List<Path> extraClasspath = List.of(h2Jar());
+        Path imageDir = Files.createTempDirectory("loadtest-images");
+        int produitPort = ServiceProcess.freePort();
+        int commandePort = ServiceProcess.freePort();
+        int gatewayPort = ServiceProcess.freePort();
+        String produitUrl = "http://127.0.0.1:" + produitPort;
+        String commandeUrl = "http://127.0.0.1:" + commandePort;
+
+        try (JwtIssuerStub issuer = new JwtIssuerStub();
+             ServiceProcess produit = ServiceProcess.start(
+                     "produit", ServiceProcess.jar(root.resolve("produit")), extraClasspath, produitPort,
+                     settings.jvmArgs(),
+                     serviceArgs(issuer, "produit",
+                             "--commande.base-url=" + commandeUrl,
+                             "--produit.image-dir=" + imageDir),
+                     logs);
+             ServiceProcess commande = ServiceProcess.start(
+                     "commande", ServiceProcess.jar(root.resolve("commande")), extraClasspath, commandePort,
+                     settings.jvmArgs(),
+                     serviceArgs(issuer, "commande", "--produit.base-url=" + produitUrl),
+                     logs);
+             ServiceProcess gateway = ServiceProcess.start(
+                     "gateway", ServiceProcess.jar(root.resolve("gateway-service")), List.of(), gatewayPort,
+                     settings.jvmArgs(),
+                     serviceArgs(issuer, null,
+                             "--services.produit-url=" + produitUrl,
+                             "--services.commande-url=" + commandeUrl),
+                     logs)) {
+            System.out.println("Waiting for the services, logs in " + logs.toAbsolutePath());
+            produit.awaitReady(client, STARTUP_TIMEOUT);
+            commande.awaitReady(client, STARTUP_TIMEOUT);
+            gateway.awaitReady(client, STARTUP_TIMEOUT);
+
+            String adminToken = issuer.token("loadtest-admin", "ADMIN");
+            List<Long> productIds = seedCatalog(produit.baseUrl(), adminToken);
+            System.out.println("Seeded " + productIds.size() + " products");
+
+            List<String> users = new ArrayList<>();
+            List<String> tokens = new ArrayList<>();
+            for (int i = 0; i < settings.users(); i++) {
+                users.add("user-" + i);
+                tokens.add(issuer.token("user-" + i, "CLIENT"));
+            }
+            List<Scenario> scenarios = scenarios(gateway.baseUrl(), productIds, users, tokens);
+
+            Instant startedAt = Instant.now();
+            OpenLoopGenerator generator = new OpenLoopGenerator(client, scenarios, settings.rate(), settings.maxInFlight());
+            List<EndpointStats> stats = generator.run(settings.warmup(), settings.duration(), startedAt.toEpochMilli());
+            return new LoadReport(
+                    startedAt,
+                    settings.rate(),
+                    settings.warmup().toSeconds(),
+                    settings.duration().toSeconds(),
+                    stats
+            );
+        }
+    }
+
+    private List<String> serviceArgs(JwtIssuerStub issuer, String database, String... args) {
+        List<String> all = new ArrayList<>();
+        all.add("--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + issuer.issuer());
+        if (database != null) {
+            all.add("--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            all.add("--spring.datasource.username=sa");
+            all.add("--spring.datasource.password=");
+            all.add("--internal.events.secret=" + internalSecret);
+        }
+        all.addAll(List.of(args));
+        all.addAll(settings.serviceArgs());
+        return all;
+    }
+
+    /**
+     * Loads the catalog through the NDJSON import, then pages through it to learn the ids.
+     */
+    private List<Long> seedCatalog(String produitUrl, String adminToken) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < settings.products(); i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + QUALIFIERS[random.nextInt(QUALIFIERS.length)] + " " + i;
+            body.append(json.writeValueAsString(Map.of(
+                    "name", name,
+                    "description", "Article de test " + i,
+                    "price", BigDecimal.valueOf(100 + random.nextInt(50_000), 2),
+                    "quantity", 1_000_000
+            ))).append('\n');
+        }
+        HttpResponse<String> imported = client.send(
+                HttpRequest.newBuilder(URI.create(produitUrl + "/api/produits/import?format=ndjson"))
+                        .timeout(STARTUP_TIMEOUT)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        if (imported.statusCode() != 200) {
+            throw new IllegalStateException("Catalog import failed with " + imported.statusCode() + ": " + imported.body());
+        }
+        JsonNode report = json.readTree(imported.body());
+        if (report.get("failed").asLong() > 0) {
+            System.out.println("Some catalog rows were rejected: " + report.get("errors"));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        Long after = null;
+        do {
+            String url = produitUrl + "/api/produits?limit=200" + (after == null ? "" : "&after=" + after);
+            HttpResponse<String> page = client.send(
+                    HttpRequest.newBuilder(URI.create(url))
+                            .timeout(REQUEST_TIMEOUT)
+                            .header("Authorization", "Bearer " + adminToken)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+            JsonNode node = json.readTree(page.body());
+            node.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            JsonNode next = node.get("nextCursor");
+            after = next == null || next.isNull() ? null : next.asLong();
+        } while (after != null);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("The catalog is empty after the import");
+        }
+        return ids;
+    }
+
+    private List<Scenario> scenarios(String gatewayUrl, List<Long> productIds, List<String> users, List<String> tokens) {
+        Map<String, Function<SplittableRandom, HttpRequest>> factories = Map.of(
+                "browse", random -> {
+                    // Mostly the first pages, as people rarely scroll far.
+                    int skip = random.nextInt(Math.max(1, productIds.size() / 10));
+                    String after = skip == 0 ? "" : "&after=" + productIds.get(skip - 1);
+                    return get(gatewayUrl + "/api/produits?limit=" + PAGE_SIZE + after, tokens.get(random.nextInt(tokens.size())));
+                },
+                "product", random -> get(
+                        gatewayUrl + "/api/produits/" + productIds.get(random.nextInt(productIds.size())),
+                        tokens.get(random.nextInt(tokens.size()))
+                ),
+                "search", random -> get(
+                        gatewayUrl + "/api/produits/search?limit=" + PAGE_SIZE + "&q=" + WORDS[random.nextInt(WORDS.length)],
+                        tokens.get(random.nextInt(tokens.size()))
+                ),
+                "order", random -> {
+                    int user = random.nextInt(users.size());
+                    return request(gatewayUrl + "/api/commandes", tokens.get(user))
+                            .header("Content-Type", "application/json")
+                            .header("Idempotency-Key", UUID.randomUUID().toString())
+                            .POST(HttpRequest.BodyPublishers.ofString(orderBody(random, productIds)))
+                            .build();
+                },
+                "history", random -> {
+                    int user = random.nextInt(users.size());
+                    return get(gatewayUrl + "/api/commandes/client/" + users.get(user) + "?limit=" + PAGE_SIZE, tokens.get(user));
+                }
+        );
+
+        List<Scenario> scenarios = new ArrayList<>();
+        settings.mix().forEach((name, weight) -> {
+            Function<SplittableRandom, HttpRequest> factory = factories.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of " + factories.keySet());
+            }
+            scenarios.add(new Scenario(name, weight, factory));
+        });
+        return scenarios;
+    }
+
+    private String orderBody(SplittableRandom random, List<Long> productIds) {
+        int lines = 1 + random.nextInt(5);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(Map.of(
+                    "productId", productIds.get(random.nextInt(productIds.size())),
+                    "quantity", 1 + random.nextInt(3)
+            ));
+        }
+        return json.writeValueAsString(Map.of("items", items));
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return request(url, token).GET().build();
+    }
+
+    private static HttpRequest.Builder request(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private static Path h2Jar() throws URISyntaxException {
+        return Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+}
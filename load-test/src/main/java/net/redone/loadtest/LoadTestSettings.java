@@ -0,0 +1,93 @@
+package net.redone.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Knobs of a load-test run, read from {@code loadtest.*} system properties so they can be
+ * given on the Maven command line.
+ */
+record LoadTestSettings(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Map<String, Integer> mix,
+        int users,
+        int products,
+        int maxInFlight,
+        Path repositoryRoot,
+        List<String> jvmArgs,
+        List<String> serviceArgs,
+        Path report
+) {
+
+    static final String DEFAULT_MIX = "browse:35,product:25,search:10,order:10,history:20";
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Double.parseDouble(property("rate", "100")),
+                duration(property("warmup", "15s")),
+                duration(property("duration", "60s")),
+                mix(property("mix", DEFAULT_MIX)),
+                Integer.parseInt(property("users", "100")),
+                Integer.parseInt(property("products", "2000")),
+                Integer.parseInt(property("max-in-flight", "2000")),
+                Path.of(property("repository-root", "..")).toAbsolutePath().normalize(),
+                words(property("jvm-args", "-Xmx512m")),
+                words(property("service-args", "")),
+                Path.of(property("report", "target/loadtest-report.json"))
+        );
+    }
+
+    /**
+     * Parses durations written as in the services' properties: {@code 500ms}, {@code 30s}, {@code 5m}.
+     */
+    static Duration duration(String value) {
+        String text = value.strip();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    /**
+     * Parses a scenario mix such as {@code browse:70,order:30} into weights by scenario name.
+     */
+    static Map<String, Integer> mix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.strip().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries are name:weight, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].strip());
+            if (weight > 0) {
+                weights.put(parts[0].strip(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no scenario with a positive weight");
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static List<String> words(String value) {
+        return Arrays.stream(value.strip().split("\\s+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+}
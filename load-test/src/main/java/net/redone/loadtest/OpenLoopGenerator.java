@@ -0,0 +1,112 @@
+package net.redone.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a constant arrival rate whatever the system under test does: a slow
+ * response never delays the next request, as it would with a fixed pool of looping clients.
+ * Each request's latency is taken from the moment it was due, so time spent queued behind
+ * a stalled system is counted rather than hidden (no coordinated omission).
+ * Requests due during the warm-up are sent but not recorded.
+ */
+final class OpenLoopGenerator {
+
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final HttpClient client;
+    private final List<Scenario> scenarios;
+    private final int totalWeight;
+    private final double rate;
+    private final int maxInFlight;
+
+    OpenLoopGenerator(HttpClient client, List<Scenario> scenarios, double rate, int maxInFlight) {
+        if (rate <= 0 || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("A positive rate and at least one scenario are required");
+        }
+        this.client = client;
+        this.scenarios = List.copyOf(scenarios);
+        this.totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+    }
+
+    List<EndpointStats> run(Duration warmup, Duration duration, long seed) throws InterruptedException {
+        Map<String, EndpointRecorder> recorders = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> recorders.put(scenario.name(), new EndpointRecorder(scenario.name())));
+        SplittableRandom random = new SplittableRandom(seed);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0; ; sequence++) {
+                long due = start + Math.round(sequence * intervalNanos);
+                if (due >= end) {
+                    break;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Scenario scenario = pick(random);
+                EndpointRecorder recorder = due >= measureFrom ? recorders.get(scenario.name()) : null;
+                if (!inFlight.tryAcquire()) {
+                    if (recorder != null) {
+                        recorder.dropped();
+                    }
+                    continue;
+                }
+                HttpRequest request = scenario.request().apply(random);
+                executor.execute(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (recorder != null) {
+                            recorder.response(response.statusCode(), System.nanoTime() - due);
+                        }
+                    } catch (IOException ex) {
+                        if (recorder != null) {
+                            recorder.transportError();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        double measuredSeconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        List<EndpointStats> stats = new ArrayList<>();
+        recorders.values().forEach(recorder -> stats.add(recorder.stats(measuredSeconds)));
+        stats.add(EndpointRecorder.total(recorders.values(), measuredSeconds));
+        return stats;
+    }
+
+    private Scenario pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            ticket -= scenario.weight();
+            if (ticket < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
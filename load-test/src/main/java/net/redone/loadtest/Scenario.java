@@ -0,0 +1,12 @@
+package net.redone.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * One kind of request in the mix, with its share of the traffic.
+ * The request factory is only called from the generator's dispatching thread.
+ */
+record Scenario(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+}
@@ -0,0 +1,98 @@
+package net.redone.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OpenLoopGeneratorTest {
+
+    private HttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fast", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/limited", exchange -> {
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        // One worker: requests to /slow queue up behind each other, like a saturated service.
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void countsQueueingDelayFromTheTimeEachRequestWasDue() throws InterruptedException {
+        // 50 req/s against a server doing 10 req/s: the backlog grows for the whole second,
+        // so the last requests wait well over a second. A closed-loop client would only see ~100 ms.
+        OpenLoopGenerator generator = new OpenLoopGenerator(client, List.of(scenario("slow", 1)), 50, 1000);
+
+        EndpointStats slow = byName(generator.run(Duration.ZERO, Duration.ofSeconds(1), 1)).get("slow");
+
+        assertThat(slow.requests()).isBetween(48L, 52L);
+        assertThat(slow.ok()).isEqualTo(slow.requests());
+        assertThat(slow.maxMs()).isGreaterThan(2_000);
+        assertThat(slow.p50Ms()).isGreaterThan(1_000);
+    }
+
+    @Test
+    void keepsTheRateAndMixAndSortsStatuses() throws InterruptedException {
+        OpenLoopGenerator generator = new OpenLoopGenerator(
+                client, List.of(scenario("fast", 3), scenario("limited", 1)), 400, 1000
+        );
+
+        Map<String, EndpointStats> stats = byName(generator.run(Duration.ofMillis(200), Duration.ofSeconds(1), 7));
+
+        EndpointStats all = stats.get("all");
+        assertThat(all.requests()).isBetween(390L, 410L);
+        assertThat(stats.get("fast").ok()).isEqualTo(stats.get("fast").requests());
+        assertThat(stats.get("limited").rateLimited()).isEqualTo(stats.get("limited").requests());
+        assertThat(stats.get("fast").requests() / (double) stats.get("limited").requests()).isBetween(2.3, 3.9);
+        assertThat(all.transportErrors()).isZero();
+    }
+
+    private Scenario scenario(String path, int weight) {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/" + path);
+        Function<SplittableRandom, HttpRequest> request = random -> HttpRequest.newBuilder(uri).build();
+        return new Scenario(path, weight, request);
+    }
+
+    private static Map<String, EndpointStats> byName(List<EndpointStats> stats) {
+        return stats.stream().collect(Collectors.toMap(EndpointStats::endpoint, Function.identity()));
+    }
+}
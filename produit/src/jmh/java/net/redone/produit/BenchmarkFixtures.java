@@ -0,0 +1,89 @@
+package net.redone.produit;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import net.redone.produit.entities.Product;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Deterministic data shared by the benchmarks, shaped like what the services handle in production.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] SYLLABLES = {
+            "la", "mpe", "bu", "reau", "ca", "ble", "so", "ris", "é", "cran", "cla", "vier",
+            "ta", "pis", "ché", "ri", "po", "rte", "mo", "ni", "teur", "gé", "lo", "ve"
+    };
+    private static final int VOCABULARY = 6_000;
+    private static final int NAME_WORDS = 3;
+    private static final int DESCRIPTION_WORDS = 10;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Products whose names and descriptions draw on a shared vocabulary with a skewed
+     * frequency, so a few terms are very common and most are rare, as in a real catalog.
+     */
+    public static List<Product> catalog(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long id = i + 1;
+            products.add(new Product(
+                    id,
+                    words(random, NAME_WORDS),
+                    words(random, DESCRIPTION_WORDS),
+                    BigDecimal.valueOf(199 + (i * 37L) % 100_000, 2),
+                    i % 500
+            ));
+        }
+        return products;
+    }
+
+    /**
+     * The word of the given rank in the benchmark vocabulary, rank 0 being the most frequent.
+     */
+    public static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int value = rank;
+        do {
+            word.append(SYLLABLES[value % SYLLABLES.length]);
+            value /= SYLLABLES.length;
+        } while (value > 0);
+        return word.toString();
+    }
+
+    /**
+     * A Keycloak access token carrying realm roles and roles for two clients.
+     */
+    public static Jwt keycloakToken() {
+        return Jwt.withTokenValue("benchmark-token")
+                .header("alg", "RS256")
+                .subject("3f1c2b9e-5d4a-4c1e-9a8b-0f2e6d7c5b4a")
+                .claim("preferred_username", "admin1")
+                .claim("realm_access", Map.of(
+                        "roles", List.of("ADMIN", "offline_access", "uma_authorization", "default-roles-gestion")
+                ))
+                .claim("resource_access", Map.of(
+                        "account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+                        "frontend", Map.of("roles", List.of("ADMIN"))
+                ))
+                .build();
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            double skew = random.nextDouble();
+            text.append(word((int) (skew * skew * skew * VOCABULARY)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package net.redone.produit.dtos;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.redone.produit.BenchmarkFixtures;
+import net.redone.produit.mappers.ProductMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serializing a list of product responses to the JSON bytes written on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductJsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int products;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private List<ProductResponse> responses;
+
+    @Setup
+    public void setUp() {
+        ProductMapper productMapper = new ProductMapper();
+        responses = BenchmarkFixtures.catalog(products)
+                .stream()
+                .map(productMapper::toResponse)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeResponses() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
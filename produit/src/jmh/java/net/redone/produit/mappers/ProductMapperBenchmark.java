@@ -0,0 +1,48 @@
+package net.redone.produit.mappers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.redone.produit.BenchmarkFixtures;
+import net.redone.produit.dtos.ProductResponse;
+import net.redone.produit.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping a whole catalog to responses, the way {@code ProductServiceImpl.findAll} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    private int products;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private List<Product> catalog;
+
+    @Setup
+    public void setUp() {
+        catalog = BenchmarkFixtures.catalog(products);
+    }
+
+    @Benchmark
+    public List<ProductResponse> toResponses() {
+        return catalog.stream()
+                .map(productMapper::toResponse)
+                .toList();
+    }
+}
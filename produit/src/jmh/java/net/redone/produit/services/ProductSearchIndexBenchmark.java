@@ -0,0 +1,87 @@
+package net.redone.produit.services;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.redone.produit.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search and autocomplete latency on a large catalog. Sampled, so the report carries the
+ * p99 and p99.9 the index is held to, not just the mean.
+ * The last word of a query is typed as a prefix, as it is while the user types.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ProductSearchIndexBenchmark {
+
+    private static final int LIMIT = 20;
+
+    /**
+     * {@code SELECTIVE} queries name uncommon words, {@code COMMON} ones start with words
+     * found in a large share of the catalog, where a search stops at its cap on postings read.
+     */
+    public enum QueryMix {
+        SELECTIVE,
+        COMMON
+    }
+
+    @Param({"1000000"})
+    private int products;
+
+    @Param({"SELECTIVE", "COMMON"})
+    private QueryMix queryMix;
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private String[] queries;
+    private String[] prefixes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.catalog(products).forEach(index::put);
+        queries = switch (queryMix) {
+            case SELECTIVE -> new String[] {
+                    BenchmarkFixtures.word(2500),
+                    BenchmarkFixtures.word(900) + " " + prefix(BenchmarkFixtures.word(1200), 4),
+                    BenchmarkFixtures.word(600) + " " + BenchmarkFixtures.word(3),
+                    prefix(BenchmarkFixtures.word(4000), 5),
+                    "inexistant"
+            };
+            case COMMON -> new String[] {
+                    BenchmarkFixtures.word(0),
+                    BenchmarkFixtures.word(3) + " " + BenchmarkFixtures.word(40),
+                    BenchmarkFixtures.word(2) + " " + BenchmarkFixtures.word(5) + " " + prefix(BenchmarkFixtures.word(80), 2),
+                    prefix(BenchmarkFixtures.word(1), 2)
+            };
+        };
+        prefixes = new String[] {"l", "ca", "cla", "mpeé", "vierte"};
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(queries[next++ % queries.length], LIMIT);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return index.suggest(prefixes[next++ % prefixes.length], LIMIT);
+    }
+
+    private static String prefix(String word, int length) {
+        return word.substring(0, Math.min(length, word.length()));
+    }
+}
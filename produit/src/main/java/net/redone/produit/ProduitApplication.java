@@ -1,21 +1,38 @@
 package net.redone.produit;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import net.redone.produit.entities.Product;
 import net.redone.produit.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProduitApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(ProduitApplication.class, args);
     }
 
+    @Bean
+    public RestTemplate restTemplate(
+            @Value("${commande.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${commande.read-timeout:2s}") Duration readTimeout
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return new RestTemplate(requestFactory);
+    }
+
 //    @Bean
 //    CommandLineRunner seedProducts(ProductRepository productRepository) {
 //        return args -> {
@@ -0,0 +1,48 @@
+package net.redone.produit.config;
+
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Products used to take their ids from an identity column. On a database that already
+ * holds rows, the sequence that replaced it starts at 1, so before the application serves
+ * traffic the sequence is moved past the highest product id.
+ */
+@Component
+public class SequenceAlignment implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> SEQUENCES = Map.of("products_seq", "products");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+        );
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            Long value = jdbcTemplate.queryForObject(
+                    "select setval('" + sequence + "', greatest("
+                            + "(select coalesce(max(id), 0) from " + table + ") + " + ALLOCATION_SIZE + ", "
+                            + "(select last_value from " + sequence + ")))",
+                    Long.class
+            );
+            logger.debug("Sequence {} positioned at {}", sequence, value);
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package net.redone.produit.controllers;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import net.redone.produit.config.InternalToken;
+import net.redone.produit.dtos.EventMessage;
+import net.redone.produit.services.IncomingEventService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives event batches pushed by other services' outbox relays. It is not routed by
+ * the gateway and is authenticated with the secret shared by the services.
+ */
+@RestController
+@RequestMapping("/internal/events")
+@RequiredArgsConstructor
+public class InternalEventController {
+
+    private final IncomingEventService incomingEventService;
+    private final InternalToken internalToken;
+
+    @PostMapping
+    public ResponseEntity<Void> receive(
+            @RequestHeader(value = InternalToken.HEADER, required = false) String token,
+            @RequestBody List<EventMessage> messages
+    ) {
+        internalToken.verify(token);
+        incomingEventService.handle(messages);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,12 +1,24 @@
 package net.redone.produit.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import net.redone.produit.dtos.CatalogSummary;
+import net.redone.produit.dtos.CursorPage;
 import net.redone.produit.dtos.ProductCreateRequest;
+import net.redone.produit.dtos.ProductImportReport;
 import net.redone.produit.dtos.ProductResponse;
 import net.redone.produit.dtos.ProductUpdateRequest;
+import net.redone.produit.services.CatalogStatistics;
+import net.redone.produit.services.ProductImportService;
 import net.redone.produit.services.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,7 +27,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
@@ -24,6 +38,11 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogStatistics catalogStatistics;
+    private final ProductImportService productImportService;
+
+    @Value("${produit.catalog.shared-max-age:30s}")
+    private Duration sharedMaxAge;
 
     @PostMapping
     public ResponseEntity<ProductResponse> create(@RequestBody ProductCreateRequest request) {
@@ -35,6 +54,22 @@ public class ProductController {
         return ResponseEntity.created(location).body(response);
     }
 
+    /**
+     * Bulk create or update from a CSV or NDJSON body, read as it arrives.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request
+    ) throws IOException {
+        ProductImportReport report = switch (format.toLowerCase()) {
+            case "ndjson" -> productImportService.importNdjson(request.getInputStream());
+            case "csv" -> productImportService.importCsv(request.getInputStream());
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + format);
+        };
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> update(@PathVariable Long id, @RequestBody ProductUpdateRequest request) {
         return ResponseEntity.ok(productService.update(id, request));
@@ -47,12 +82,53 @@ public class ProductController {
     }
 
     @GetMapping
+    public ResponseEntity<CursorPage<ProductResponse>> findPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(productService.findPage(after, limit));
+    }
+
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<ProductResponse>> findAll() {
-        return ResponseEntity.ok(productService.findAll());
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(productService.findAll());
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<CatalogSummary> summary() {
+        return ResponseEntity.ok(catalogStatistics.summary());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(productService.search(q, limit));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(productService.autocomplete(prefix, limit));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductResponse>> findAllByIds(@RequestParam Set<Long> ids) {
+        return ResponseEntity.ok(productService.findAllByIds(ids));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> findById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.findById(id));
+        return ResponseEntity.ok().cacheControl(catalogCacheControl()).body(productService.findById(id));
+    }
+
+    /**
+     * Catalog reads may be reused by the gateway for a short while; browsers always revalidate.
+     */
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(Duration.ZERO).sMaxAge(sharedMaxAge);
     }
 }
@@ -1,16 +1,23 @@
 package net.redone.produit.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import net.redone.produit.repositories.ProductRepository;
+import net.redone.produit.services.ProductImageFile;
+import net.redone.produit.services.ProductImageStorage;
+import net.redone.produit.services.ProductImageVariants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +26,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -27,21 +35,26 @@ public class ProductImageController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductImageController.class);
 
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final ProductRepository productRepository;
-    private final Path imageDir;
+    private final ProductImageStorage imageStorage;
+    private final ProductImageVariants imageVariants;
+    private final Duration imageMaxAge;
 
     public ProductImageController(
             ProductRepository productRepository,
-            @Value("${produit.image-dir:./catalog}") String imageDir
+            ProductImageStorage imageStorage,
+            ProductImageVariants imageVariants,
+            @Value("${produit.images.max-age:7d}") Duration imageMaxAge
     ) {
         this.productRepository = productRepository;
-        this.imageDir = resolveImageDir(imageDir);
-        try {
-            Files.createDirectories(this.imageDir);
-            logger.info("Product images directory: {}", this.imageDir.toAbsolutePath());
-        } catch (IOException ex) {
-            logger.warn("Unable to create product image directory {}: {}", this.imageDir, ex.getMessage());
-        }
+        this.imageStorage = imageStorage;
+        this.imageVariants = imageVariants;
+        this.imageMaxAge = imageMaxAge;
     }
 
     @PostMapping(value = "/api/produits/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -60,90 +73,85 @@ public class ProductImageController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only JPG images are supported");
         }
 
+        Path saved;
         try {
-            saveImage(file, imageDir.resolve(id + ".jpg"));
-        } catch (IOException ex) {
-            Path fallbackDir = locateFrontendCatalog();
-            if (fallbackDir != null && !fallbackDir.equals(imageDir)) {
-                try {
-                    saveImage(file, fallbackDir.resolve(id + ".jpg"));
-                    return ResponseEntity.noContent().build();
-                } catch (IOException fallbackEx) {
-                    logger.error("Failed to save product image to fallback dir {}: {}",
-                            fallbackDir, fallbackEx.getMessage());
-                    throw new ResponseStatusException(
-                            HttpStatus.INTERNAL_SERVER_ERROR,
-                            "Failed to save image: " + fallbackEx.getMessage()
-                    );
-                }
-            }
-            logger.error("Failed to save product image to {}: {}", imageDir, ex.getMessage());
-            throw new ResponseStatusException(
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Failed to save image: " + ex.getMessage()
-            );
-        } catch (RuntimeException ex) {
-            logger.error("Unexpected error saving product image to {}: {}", imageDir, ex.getMessage());
+            saved = imageStorage.save(id, file);
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Failed to save product image to {}: {}", imageStorage.imageDir(), ex.getMessage());
             throw new ResponseStatusException(
                     HttpStatus.INTERNAL_SERVER_ERROR,
                     "Failed to save image: " + ex.getMessage()
             );
         }
+        if (saved.equals(imageStorage.original(id))) {
+            imageVariants.regenerate(id);
+        }
 
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping(value = "/catalog/{id}.jpg", produces = MediaType.IMAGE_JPEG_VALUE)
-    public ResponseEntity<Resource> getImage(@PathVariable Long id) {
-        Path imagePath = imageDir.resolve(id + ".jpg");
-        Resource resource = new FileSystemResource(imagePath);
-        if (!resource.exists()) {
+    public ResponseEntity<Resource> getImage(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer w,
+            ServletWebRequest webRequest
+    ) {
+        if (w != null && !imageVariants.supports(w)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported image width");
+        }
+        if (!Files.exists(imageStorage.original(id))) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(resource);
-    }
-
-    private Path resolveImageDir(String configured) {
-        Path configuredPath = Path.of(configured);
-        if (configuredPath.isAbsolute()) {
-            return configuredPath.normalize();
+        Path imagePath = w == null ? imageStorage.original(id) : imageVariants.resolve(id, w);
+        ProductImageFile image;
+        try {
+            image = imageStorage.describe(imagePath);
+        } catch (NoSuchFileException ex) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException ex) {
+            logger.error("Unable to read product image {}: {}", imagePath, ex.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Unable to read image");
         }
-        Path repoRoot = findRepoRoot();
-        if (repoRoot != null) {
-            return repoRoot.resolve(configuredPath).normalize();
+        ResponseEntity.BodyBuilder response;
+        if (w != null && imagePath.equals(imageStorage.original(id))) {
+            // The original stands in for a variant that could not be produced in time. It must
+            // not be cached under the variant's URL, nor validated as if it were the variant.
+            response = ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .eTag(fallbackEtag(image));
+        } else {
+            // Sets ETag and Last-Modified on the response, and answers 304 when the client's copy is current.
+            if (webRequest.checkNotModified(image.getEtag(), image.getLastModified())) {
+                return null;
+            }
+            response = ResponseEntity.ok().cacheControl(CacheControl.maxAge(imageMaxAge).cachePublic());
         }
-        Path cwd = Path.of(System.getProperty("user.dir"));
-        return cwd.resolve(configuredPath).normalize();
-    }
-
-    private void saveImage(MultipartFile file, Path target) throws IOException {
-        Files.createDirectories(target.getParent());
-        try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+        response.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        HttpServletRequest request = webRequest.getRequest();
+        if (request.getHeader(HttpHeaders.RANGE) == null && sendfile(request, image)) {
+            return response.contentType(MediaType.IMAGE_JPEG).contentLength(image.getLength()).build();
         }
+        // Range requests and connectors without sendfile go through Spring's resource handling.
+        return response.body(new FileSystemResource(imagePath));
     }
 
-    private Path locateFrontendCatalog() {
-        Path cwd = Path.of(System.getProperty("user.dir"));
-        Path current = cwd;
-        while (current != null) {
-            Path candidate = current.resolve("frontend/src/assets/catalog").normalize();
-            if (Files.exists(candidate) || Files.exists(candidate.getParent())) {
-                return candidate;
-            }
-            current = current.getParent();
-        }
-        return null;
+    private static String fallbackEtag(ProductImageFile image) {
+        String etag = image.getEtag();
+        return etag.substring(0, etag.length() - 1) + "-original\"";
     }
 
-    private Path findRepoRoot() {
-        Path current = Path.of(System.getProperty("user.dir"));
-        while (current != null) {
-            if (Files.exists(current.resolve(".git"))) {
-                return current;
-            }
-            current = current.getParent();
+    /**
+     * Hands the file to Tomcat so the body is written by the kernel without passing
+     * through the JVM heap.
+     */
+    private boolean sendfile(HttpServletRequest request, ProductImageFile image) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                || HttpMethod.HEAD.matches(request.getMethod())) {
+            return false;
         }
-        return null;
+        request.setAttribute(SENDFILE_FILENAME, image.getPath().toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, image.getLength());
+        return true;
     }
 }
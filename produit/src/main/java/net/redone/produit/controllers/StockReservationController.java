@@ -0,0 +1,70 @@
+package net.redone.produit.controllers;
+
+import lombok.RequiredArgsConstructor;
+import net.redone.produit.config.InternalToken;
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.dtos.StockReservationResponse;
+import net.redone.produit.exceptions.InsufficientStockException;
+import net.redone.produit.services.StockReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Stock reservations taken by commande while it places an order. Only services may call
+ * it: it is not routed by the gateway and is authenticated with the secret shared by the
+ * services, so a shopper can neither hold stock nor settle another order's reservation.
+ */
+@RestController
+@RequestMapping("/internal/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+    private final InternalToken internalToken;
+
+    @PostMapping
+    public ResponseEntity<StockReservationResponse> reserve(
+            @RequestHeader(value = InternalToken.HEADER, required = false) String token,
+            @RequestBody StockReservationRequest request
+    ) {
+        internalToken.verify(token);
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockReservationService.reserve(request));
+    }
+
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<StockReservationResponse> commit(
+            @RequestHeader(value = InternalToken.HEADER, required = false) String token,
+            @PathVariable String id
+    ) {
+        internalToken.verify(token);
+        return ResponseEntity.ok(stockReservationService.commit(id));
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<StockReservationResponse> release(
+            @RequestHeader(value = InternalToken.HEADER, required = false) String token,
+            @PathVariable String id
+    ) {
+        internalToken.verify(token);
+        return ResponseEntity.ok(stockReservationService.release(id));
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<StockReservationResponse> insufficientStock(InsufficientStockException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new StockReservationResponse(null, "REJECTED", ex.getProductId(), ex.getAvailable()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Void> concurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,18 @@
+package net.redone.produit.dtos;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSummary {
+
+    private Long productCount;
+    private BigDecimal stockValue;
+    private Long lowStockCount;
+}
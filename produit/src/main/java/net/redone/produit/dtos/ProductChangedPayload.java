@@ -0,0 +1,17 @@
+package net.redone.produit.dtos;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedPayload {
+
+    private List<Long> productIds;
+    private String change;
+}
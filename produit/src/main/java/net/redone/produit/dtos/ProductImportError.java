@@ -0,0 +1,16 @@
+package net.redone.produit.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    private Long line;
+    private String message;
+}
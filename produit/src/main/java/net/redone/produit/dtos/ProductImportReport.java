@@ -0,0 +1,24 @@
+package net.redone.produit.dtos;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists the first rejected rows only;
+ * {@code failed} counts all of them.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReport {
+
+    private Long processed;
+    private Long created;
+    private Long updated;
+    private Long failed;
+    private List<ProductImportError> errors;
+}
@@ -0,0 +1,18 @@
+package net.redone.produit.dtos;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStock {
+
+    private Long id;
+    private BigDecimal price;
+    private Integer quantity;
+}
@@ -0,0 +1,7 @@
+package net.redone.produit.entities;
+
+public enum ReservationStatus {
+    RESERVED,
+    COMMITTED,
+    RELEASED
+}
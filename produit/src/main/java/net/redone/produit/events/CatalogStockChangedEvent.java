@@ -0,0 +1,36 @@
+package net.redone.produit.events;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.redone.produit.dtos.ProductStock;
+import net.redone.produit.entities.Product;
+
+/**
+ * Published inside the transaction that changes what the catalog holds: the price and
+ * quantity of each product touched, before and after. A created product only has an
+ * {@code after}, a deleted one only a {@code before}.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogStockChangedEvent {
+
+    private final List<ProductStock> before;
+    private final List<ProductStock> after;
+
+    public static CatalogStockChangedEvent created(Product product) {
+        return new CatalogStockChangedEvent(List.of(), List.of(stockOf(product)));
+    }
+
+    public static CatalogStockChangedEvent updated(ProductStock before, Product product) {
+        return new CatalogStockChangedEvent(List.of(before), List.of(stockOf(product)));
+    }
+
+    public static CatalogStockChangedEvent deleted(Product product) {
+        return new CatalogStockChangedEvent(List.of(stockOf(product)), List.of());
+    }
+
+    public static ProductStock stockOf(Product product) {
+        return new ProductStock(product.getId(), product.getPrice(), product.getQuantity());
+    }
+}
@@ -0,0 +1,42 @@
+package net.redone.produit.events;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published inside the transaction that creates, updates or deletes products.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        SAVED,
+        DELETED
+    }
+
+    private final List<Long> productIds;
+    private final ChangeType type;
+
+    public static ProductChangedEvent created(Long productId) {
+        return new ProductChangedEvent(List.of(productId), ChangeType.CREATED);
+    }
+
+    public static ProductChangedEvent saved(Long productId) {
+        return new ProductChangedEvent(List.of(productId), ChangeType.SAVED);
+    }
+
+    public static ProductChangedEvent created(List<Long> productIds) {
+        return new ProductChangedEvent(List.copyOf(productIds), ChangeType.CREATED);
+    }
+
+    public static ProductChangedEvent saved(List<Long> productIds) {
+        return new ProductChangedEvent(List.copyOf(productIds), ChangeType.SAVED);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(List.of(productId), ChangeType.DELETED);
+    }
+}
@@ -0,0 +1,18 @@
+package net.redone.produit.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+@Getter
+public class InsufficientStockException extends ResponseStatusException {
+
+    private final Long productId;
+    private final int available;
+
+    public InsufficientStockException(Long productId, int available) {
+        super(HttpStatus.CONFLICT, "Insufficient stock for product " + productId + ". Available: " + available);
+        this.productId = productId;
+        this.available = available;
+    }
+}
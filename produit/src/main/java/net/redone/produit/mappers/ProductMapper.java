@@ -1,6 +1,7 @@
 package net.redone.produit.mappers;
 
 import net.redone.produit.dtos.ProductCreateRequest;
+import net.redone.produit.dtos.ProductImportRow;
 import net.redone.produit.dtos.ProductResponse;
 import net.redone.produit.dtos.ProductUpdateRequest;
 import net.redone.produit.entities.Product;
@@ -26,6 +27,23 @@ public class ProductMapper {
         product.setQuantity(request.getQuantity());
     }
 
+    public Product toEntity(ProductImportRow row) {
+        return new Product(
+                null,
+                row.getName(),
+                row.getDescription(),
+                row.getPrice(),
+                row.getQuantity()
+        );
+    }
+
+    public void updateEntity(ProductImportRow row, Product product) {
+        product.setName(row.getName());
+        product.setDescription(row.getDescription());
+        product.setPrice(row.getPrice());
+        product.setQuantity(row.getQuantity());
+    }
+
     public ProductResponse toResponse(Product product) {
         return new ProductResponse(
                 product.getId(),
@@ -1,7 +1,41 @@
 package net.redone.produit.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import net.redone.produit.dtos.CatalogSummary;
+import net.redone.produit.dtos.ProductStock;
 import net.redone.produit.entities.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    List<Product> findByNameIn(Collection<String> names);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity where p.id = :id and p.quantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :quantity where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("select new net.redone.produit.dtos.CatalogSummary("
+            + "count(p), "
+            + "coalesce(sum(p.price * p.quantity), 0), "
+            + "coalesce(sum(case when p.quantity < :threshold then 1L else 0L end), 0L)) "
+            + "from Product p")
+    CatalogSummary summarize(@Param("threshold") int threshold);
+
+    @Query("select new net.redone.produit.dtos.ProductStock(p.id, p.price, p.quantity) from Product p where p.id in :ids")
+    List<ProductStock> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.quantity from Product p where p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
 }
@@ -0,0 +1,12 @@
+package net.redone.produit.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import net.redone.produit.entities.ReservationStatus;
+import net.redone.produit.entities.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    List<StockReservation> findByStatusAndCreatedAtBefore(ReservationStatus status, LocalDateTime cutoff);
+}
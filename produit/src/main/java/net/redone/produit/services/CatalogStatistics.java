@@ -0,0 +1,90 @@
+package net.redone.produit.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import net.redone.produit.dtos.CatalogSummary;
+import net.redone.produit.dtos.ProductStock;
+import net.redone.produit.events.CatalogStockChangedEvent;
+import net.redone.produit.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Catalog totals for the dashboard, kept up to date from the stock changes of committed
+ * product writes and reservations, so reading them never queries the products table.
+ * A periodic reconciliation against the aggregate query corrects any drift (e.g. rows
+ * written by another instance).
+ */
+@Component
+public class CatalogStatistics {
+
+    private final ProductRepository productRepository;
+    private final int lowStockThreshold;
+    private final AtomicLong productCount = new AtomicLong();
+    private final AtomicLong stockValueCents = new AtomicLong();
+    private final AtomicLong lowStockCount = new AtomicLong();
+
+    public CatalogStatistics(
+            ProductRepository productRepository,
+            @Value("${produit.summary.low-stock-threshold:5}") int lowStockThreshold
+    ) {
+        this.productRepository = productRepository;
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    public CatalogSummary summary() {
+        return new CatalogSummary(productCount.get(), BigDecimal.valueOf(stockValueCents.get(), 2), lowStockCount.get());
+    }
+
+    @TransactionalEventListener
+    public void onStockChanged(CatalogStockChangedEvent event) {
+        apply(event.getBefore(), -1);
+        apply(event.getAfter(), 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${produit.summary.reconcile-interval:5m}",
+            fixedDelayString = "${produit.summary.reconcile-interval:5m}"
+    )
+    public void reconcile() {
+        // Snapshot before reading the database, then apply only the difference: a change
+        // counted while the query runs keeps its delta instead of being overwritten.
+        long productsBefore = productCount.get();
+        long centsBefore = stockValueCents.get();
+        long lowStockBefore = lowStockCount.get();
+
+        CatalogSummary summary = productRepository.summarize(lowStockThreshold);
+
+        productCount.addAndGet(summary.getProductCount() - productsBefore);
+        stockValueCents.addAndGet(toCents(summary.getStockValue()) - centsBefore);
+        lowStockCount.addAndGet(summary.getLowStockCount() - lowStockBefore);
+    }
+
+    private void apply(List<ProductStock> stocks, int sign) {
+        long cents = 0;
+        long lowStock = 0;
+        for (ProductStock stock : stocks) {
+            int quantity = stock.getQuantity() == null ? 0 : stock.getQuantity();
+            if (stock.getPrice() != null) {
+                cents += toCents(stock.getPrice()) * quantity;
+            }
+            if (quantity < lowStockThreshold) {
+                lowStock++;
+            }
+        }
+        productCount.addAndGet(sign * (long) stocks.size());
+        stockValueCents.addAndGet(sign * cents);
+        lowStockCount.addAndGet(sign * lowStock);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
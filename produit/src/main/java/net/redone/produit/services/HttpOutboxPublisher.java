@@ -0,0 +1,41 @@
+package net.redone.produit.services;
+
+import java.util.List;
+import net.redone.produit.config.InternalToken;
+import net.redone.produit.dtos.EventMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Pushes outbox events to commande's internal event endpoint, authenticated with the
+ * secret shared by the services.
+ */
+@Component
+public class HttpOutboxPublisher implements OutboxPublisher {
+
+    private final RestTemplate restTemplate;
+    private final String targetUrl;
+    private final InternalToken internalToken;
+
+    public HttpOutboxPublisher(
+            RestTemplate restTemplate,
+            @Value("${outbox.relay.target-url:http://localhost:8082/internal/events}") String targetUrl,
+            InternalToken internalToken
+    ) {
+        this.restTemplate = restTemplate;
+        this.targetUrl = targetUrl;
+        this.internalToken = internalToken;
+    }
+
+    @Override
+    public void publish(List<EventMessage> messages) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        internalToken.addTo(headers);
+        restTemplate.postForEntity(targetUrl, new HttpEntity<>(messages, headers), Void.class);
+    }
+}
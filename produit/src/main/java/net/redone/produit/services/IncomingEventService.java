@@ -0,0 +1,107 @@
+package net.redone.produit.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import net.redone.produit.dtos.CommandeCreatedPayload;
+import net.redone.produit.dtos.EventMessage;
+import net.redone.produit.dtos.StockReservationResponse;
+import net.redone.produit.entities.ProcessedEvent;
+import net.redone.produit.repositories.ProcessedEventRepository;
+import net.redone.produit.repositories.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Applies events relayed by commande. A batch is applied in one transaction together
+ * with the record of its events, so a redelivered event is skipped and a batch that
+ * fails halfway is retried as a whole.
+ */
+@Service
+@Transactional
+public class IncomingEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncomingEventService.class);
+
+    static final String COMMANDE_CREATED = "CommandeCreated";
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final StockReservationService stockReservationService;
+    private final JsonMapper jsonMapper;
+    private final Duration retention;
+
+    public IncomingEventService(
+            ProcessedEventRepository processedEventRepository,
+            StockReservationRepository stockReservationRepository,
+            StockReservationService stockReservationService,
+            JsonMapper jsonMapper,
+            @Value("${outbox.retention:7d}") Duration retention
+    ) {
+        this.processedEventRepository = processedEventRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockReservationService = stockReservationService;
+        this.jsonMapper = jsonMapper;
+        this.retention = retention;
+    }
+
+    public void handle(List<EventMessage> messages) {
+        Set<String> processed = processedEventRepository.findAllById(messages.stream().map(this::key).toList())
+                .stream()
+                .map(ProcessedEvent::getId)
+                .collect(Collectors.toSet());
+        LocalDateTime now = LocalDateTime.now();
+        for (EventMessage message : messages) {
+            String key = key(message);
+            if (!processed.add(key)) {
+                continue;
+            }
+            if (COMMANDE_CREATED.equals(message.getType())) {
+                commitReservation(jsonMapper.readValue(message.getPayload(), CommandeCreatedPayload.class));
+            } else {
+                logger.debug("Ignoring event {} of type {}", key, message.getType());
+            }
+            processedEventRepository.save(new ProcessedEvent(key, now));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}")
+    public void purgeProcessed() {
+        processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * Makes the stock taken for an order final, taking it back if the sweeper released it
+     * first. An order whose stock is gone by then is flagged on its reservation and logged.
+     */
+    private void commitReservation(CommandeCreatedPayload payload) {
+        if (!stockReservationRepository.existsById(payload.getReservationId())) {
+            logger.error(
+                    "Order {} was created but its stock reservation {} does not exist",
+                    payload.getCommandeId(),
+                    payload.getReservationId()
+            );
+            return;
+        }
+        StockReservationResponse committed = stockReservationService.commit(payload.getReservationId());
+        if (StockReservationServiceImpl.OVERSOLD.equals(committed.getStatus())) {
+            logger.error(
+                    "Order {} was committed after its stock reservation {} expired and the stock is sold out;"
+                            + " it must be reconciled",
+                    payload.getCommandeId(),
+                    payload.getReservationId()
+            );
+        }
+    }
+
+    private String key(EventMessage message) {
+        return message.getSource() + ":" + message.getId();
+    }
+}
@@ -0,0 +1,35 @@
+package net.redone.produit.services;
+
+import java.util.List;
+import net.redone.produit.dtos.ProductChangedPayload;
+import net.redone.produit.events.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds every product change to the outbox from inside the transaction that makes it.
+ * Changes of a single product are keyed by its id; bulk changes by their first id.
+ */
+@Component
+public class ProductChangeOutbox {
+
+    static final String AGGREGATE_TYPE = "Product";
+    static final String EVENT_TYPE = "ProductChanged";
+
+    private final OutboxService outboxService;
+
+    public ProductChangeOutbox(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        outboxService.append(
+                AGGREGATE_TYPE,
+                String.valueOf(productIds.get(0)),
+                EVENT_TYPE,
+                new ProductChangedPayload(productIds, event.getType().name())
+        );
+    }
+}
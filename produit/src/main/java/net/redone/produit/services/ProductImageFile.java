@@ -0,0 +1,18 @@
+package net.redone.produit.services;
+
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An image on disk together with the validators it is served with.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductImageFile {
+
+    private final Path path;
+    private final String etag;
+    private final long lastModified;
+    private final long length;
+}
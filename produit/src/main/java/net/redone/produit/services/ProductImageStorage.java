@@ -0,0 +1,187 @@
+package net.redone.produit.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Location of the uploaded product images on disk.
+ * Each image has a {@code .sha256} sidecar holding the content hash used as its ETag,
+ * written at upload time or computed once for images that predate it.
+ */
+@Component
+public class ProductImageStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageStorage.class);
+
+    private static final String DIGEST_SUFFIX = ".sha256";
+
+    private final Path imageDir;
+    private final ConcurrentHashMap<Path, ProductImageFile> described = new ConcurrentHashMap<>();
+
+    public ProductImageStorage(@Value("${produit.image-dir:./catalog}") String imageDir) {
+        this.imageDir = resolveImageDir(imageDir);
+        try {
+            Files.createDirectories(this.imageDir);
+            logger.info("Product images directory: {}", this.imageDir.toAbsolutePath());
+        } catch (IOException ex) {
+            logger.warn("Unable to create product image directory {}: {}", this.imageDir, ex.getMessage());
+        }
+    }
+
+    public Path imageDir() {
+        return imageDir;
+    }
+
+    public Path original(Long productId) {
+        return imageDir.resolve(productId + ".jpg");
+    }
+
+    /**
+     * Stores the upload as the product's original image and returns where it was written.
+     * Falls back to the frontend catalog folder when the configured directory is not writable.
+     */
+    public Path save(Long productId, MultipartFile file) throws IOException {
+        Path target = original(productId);
+        try {
+            write(file, target);
+            return target;
+        } catch (IOException ex) {
+            Path fallbackDir = locateFrontendCatalog();
+            if (fallbackDir == null || fallbackDir.equals(imageDir)) {
+                throw ex;
+            }
+            Path fallback = fallbackDir.resolve(productId + ".jpg");
+            write(file, fallback);
+            return fallback;
+        }
+    }
+
+    /**
+     * Validators of an image, read from its sidecar and kept in memory for as long as the
+     * file's size and modification time do not change.
+     */
+    public ProductImageFile describe(Path image) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(image, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        ProductImageFile cached = described.get(image);
+        if (cached != null && cached.getLastModified() == lastModified && cached.getLength() == attributes.size()) {
+            return cached;
+        }
+        String digest = readDigest(image, attributes);
+        if (digest == null) {
+            MessageDigest sha256 = sha256();
+            try (InputStream inputStream = new DigestInputStream(Files.newInputStream(image), sha256)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            digest = HexFormat.of().formatHex(sha256.digest());
+            writeDigest(image, digest);
+        }
+        ProductImageFile file = new ProductImageFile(image, "\"" + digest + "\"", lastModified, attributes.size());
+        described.put(image, file);
+        return file;
+    }
+
+    private void write(MultipartFile file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        MessageDigest sha256 = sha256();
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), sha256)) {
+            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        described.remove(target);
+        writeDigest(target, HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    private String readDigest(Path image, BasicFileAttributes attributes) {
+        Path sidecar = digestPath(image);
+        try {
+            if (Files.exists(sidecar)
+                    && Files.getLastModifiedTime(sidecar).compareTo(attributes.lastModifiedTime()) >= 0) {
+                String digest = Files.readString(sidecar, StandardCharsets.US_ASCII).trim();
+                return digest.isEmpty() ? null : digest;
+            }
+        } catch (IOException ex) {
+            logger.debug("Ignoring unreadable image digest {}: {}", sidecar, ex.getMessage());
+        }
+        return null;
+    }
+
+    private void writeDigest(Path image, String digest) {
+        Path sidecar = digestPath(image);
+        try {
+            Path temp = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+            Files.writeString(temp, digest, StandardCharsets.US_ASCII);
+            Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.warn("Unable to store image digest {}: {}", sidecar, ex.getMessage());
+        }
+    }
+
+    static String sha256Hex(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    private static Path digestPath(Path image) {
+        return image.resolveSibling(image.getFileName() + DIGEST_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Path resolveImageDir(String configured) {
+        Path configuredPath = Path.of(configured);
+        if (configuredPath.isAbsolute()) {
+            return configuredPath.normalize();
+        }
+        Path repoRoot = findRepoRoot();
+        if (repoRoot != null) {
+            return repoRoot.resolve(configuredPath).normalize();
+        }
+        Path cwd = Path.of(System.getProperty("user.dir"));
+        return cwd.resolve(configuredPath).normalize();
+    }
+
+    private Path locateFrontendCatalog() {
+        Path cwd = Path.of(System.getProperty("user.dir"));
+        Path current = cwd;
+        while (current != null) {
+            Path candidate = current.resolve("frontend/src/assets/catalog").normalize();
+            if (Files.exists(candidate) || Files.exists(candidate.getParent())) {
+                return candidate;
+            }
+            current = current.getParent();
+        }
+        return null;
+    }
+
+    private Path findRepoRoot() {
+        Path current = Path.of(System.getProperty("user.dir"));
+        while (current != null) {
+            if (Files.exists(current.resolve(".git"))) {
+                return current;
+            }
+            current = current.getParent();
+        }
+        return null;
+    }
+}
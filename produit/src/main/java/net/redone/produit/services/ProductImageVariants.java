@@ -0,0 +1,243 @@
+package net.redone.produit.services;
+
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resized JPEG variants of the product images, generated on a small bounded pool and
+ * kept on disk under {@code variants/} in the image directory.
+ * Re-encoding from decoded pixels drops every metadata segment of the upload.
+ * Variants are named after the SHA-256 of the original they were made from, so a resize
+ * that outlives a new upload can never be served for it. Concurrent requests for a
+ * variant that is not on disk yet share a single resize.
+ */
+@Component
+public class ProductImageVariants {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageVariants.class);
+
+    private final ProductImageStorage storage;
+    private final Set<Integer> widths;
+    private final float jpegQuality;
+    private final Duration waitTimeout;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generated = new AtomicLong();
+
+    public ProductImageVariants(
+            ProductImageStorage storage,
+            @Value("${produit.images.variant-widths:200,400,800}") List<Integer> widths,
+            @Value("${produit.images.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${produit.images.resize-threads:2}") int resizeThreads,
+            @Value("${produit.images.resize-queue-capacity:64}") int queueCapacity,
+            @Value("${produit.images.resize-wait:5s}") Duration waitTimeout
+    ) {
+        this.storage = storage;
+        this.widths = new TreeSet<>(widths);
+        this.jpegQuality = jpegQuality;
+        this.waitTimeout = waitTimeout;
+        this.executor = new ThreadPoolExecutor(
+                resizeThreads,
+                resizeThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-resize-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public boolean supports(int width) {
+        return widths.contains(width);
+    }
+
+    /**
+     * Path of the variant of the current original, generating it first if it is missing.
+     * Returns the original image when the variant cannot be produced in time.
+     */
+    public Path resolve(Long productId, int width) {
+        Path original = storage.original(productId);
+        String digest;
+        try {
+            digest = digest(original);
+        } catch (IOException ex) {
+            return original;
+        }
+        Path variant = variantPath(productId, digest, width);
+        if (Files.exists(variant)) {
+            return variant;
+        }
+        try {
+            return schedule(original, digest, variant, width).get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException ex) {
+            logger.warn("Serving original image of product {}: variant w={} not ready", productId, width);
+            return original;
+        } catch (ExecutionException ex) {
+            logger.error("Unable to resize image of product {} to w={}: {}", productId, width, ex.getCause().getMessage());
+            return original;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return original;
+        }
+    }
+
+    /**
+     * Drops the variants of a replaced image and queues the variants of the new one.
+     */
+    public void regenerate(Long productId) {
+        Path original = storage.original(productId);
+        String digest;
+        try {
+            digest = digest(original);
+        } catch (IOException ex) {
+            logger.warn("Unable to read replaced image {}: {}", original, ex.getMessage());
+            return;
+        }
+        deleteStaleVariants(productId, digest);
+        for (int width : widths) {
+            Path variant = variantPath(productId, digest, width);
+            try {
+                schedule(original, digest, variant, width);
+            } catch (RejectedExecutionException ex) {
+                logger.debug("Resize queue full, variant {} will be generated on first request", variant);
+            }
+        }
+    }
+
+    long generatedCount() {
+        return generated.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Path> schedule(Path original, String digest, Path variant, int width) {
+        CompletableFuture<Path> future = inFlight.computeIfAbsent(
+                variant,
+                key -> CompletableFuture.supplyAsync(() -> generate(original, digest, variant, width), executor)
+        );
+        future.whenComplete((path, error) -> inFlight.remove(variant, future));
+        return future;
+    }
+
+    private Path generate(Path original, String digest, Path variant, int width) {
+        if (Files.exists(variant)) {
+            return variant;
+        }
+        try {
+            // Resizes the bytes that were hashed, not whatever the file holds by the time it is read.
+            byte[] content = Files.readAllBytes(original);
+            if (!digest.equals(ProductImageStorage.sha256Hex(content))) {
+                throw new IOException("Image " + original + " was replaced while its variant was queued");
+            }
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(content));
+            if (source == null) {
+                throw new IOException("Unreadable image " + original);
+            }
+            Files.createDirectories(variant.getParent());
+            Path temp = Files.createTempFile(variant.getParent(), variant.getFileName().toString(), ".tmp");
+            try {
+                writeJpeg(resize(source, width), temp);
+                Files.move(temp, variant, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            generated.incrementAndGet();
+            return variant;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG encoder available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private String digest(Path original) throws IOException {
+        String etag = storage.describe(original).getEtag();
+        return etag.substring(1, etag.length() - 1);
+    }
+
+    private void deleteStaleVariants(Long productId, String digest) {
+        Path variantDir = storage.imageDir().resolve("variants");
+        if (!Files.isDirectory(variantDir)) {
+            return;
+        }
+        String current = productId + "-" + digest + "-w";
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(variantDir, productId + "-*.jpg")) {
+            for (Path variant : stale) {
+                if (!variant.getFileName().toString().startsWith(current)) {
+                    Files.deleteIfExists(variant);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Unable to delete stale variants of product {}: {}", productId, ex.getMessage());
+        }
+    }
+
+    private Path variantPath(Long productId, String digest, int width) {
+        return storage.imageDir().resolve("variants").resolve(productId + "-" + digest + "-w" + width + ".jpg");
+    }
+}
@@ -0,0 +1,12 @@
+package net.redone.produit.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import net.redone.produit.dtos.ProductImportReport;
+
+public interface ProductImportService {
+
+    ProductImportReport importNdjson(InputStream input) throws IOException;
+
+    ProductImportReport importCsv(InputStream input) throws IOException;
+}
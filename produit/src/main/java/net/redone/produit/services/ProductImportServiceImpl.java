@@ -0,0 +1,354 @@
+package net.redone.produit.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import net.redone.produit.dtos.ProductImportError;
+import net.redone.produit.dtos.ProductImportReport;
+import net.redone.produit.dtos.ProductImportRow;
+import net.redone.produit.dtos.ProductStock;
+import net.redone.produit.entities.Product;
+import net.redone.produit.events.CatalogStockChangedEvent;
+import net.redone.produit.events.ProductChangedEvent;
+import net.redone.produit.mappers.ProductMapper;
+import net.redone.produit.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Imports products from a request body read as a stream: rows are parsed and validated
+ * one at a time and written in fixed-size batches, each in its own transaction, so at
+ * most one batch is held in memory and a failing batch does not undo the ones before it.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    private static final int MAX_PRICE_INTEGER_DIGITS = 11;
+    private static final int MAX_PRICE_SCALE = 2;
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "price", "quantity");
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProductImportServiceImpl(
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            JsonMapper jsonMapper,
+            @Value("${produit.import.batch-size:500}") int batchSize,
+            @Value("${produit.import.max-errors:1000}") int maxErrors
+    ) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonMapper = jsonMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ProductImportReport importNdjson(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = bufferedReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ProductImportRow row;
+                try {
+                    row = jsonMapper.readValue(line, ProductImportRow.class);
+                } catch (JacksonException ex) {
+                    run.reject(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+                    continue;
+                }
+                run.accept(lineNumber, row);
+            }
+        }
+        return run.finish();
+    }
+
+    @Override
+    public ProductImportReport importCsv(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = bufferedReader(input)) {
+            CsvRecordReader records = new CsvRecordReader(reader);
+            List<String> header = records.next();
+            if (header == null) {
+                return run.finish();
+            }
+            Map<String, Integer> columns = columnIndexes(header);
+            List<String> fields;
+            while ((fields = records.next()) != null) {
+                long lineNumber = records.recordLine();
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (records.unterminated()) {
+                    run.reject(lineNumber, "Unterminated quoted field");
+                    continue;
+                }
+                try {
+                    run.accept(lineNumber, toRow(fields, columns));
+                } catch (NumberFormatException ex) {
+                    run.reject(lineNumber, "Invalid number: " + ex.getMessage());
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    private BufferedReader bufferedReader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private Map<String, Integer> columnIndexes(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).replace(BYTE_ORDER_MARK, "").strip().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing CSV columns: " + missing);
+        }
+        return columns;
+    }
+
+    private ProductImportRow toRow(List<String> fields, Map<String, Integer> columns) {
+        String id = field(fields, columns, "id");
+        String price = field(fields, columns, "price");
+        String quantity = field(fields, columns, "quantity");
+        return new ProductImportRow(
+                id == null || id.isBlank() ? null : Long.valueOf(id.strip()),
+                field(fields, columns, "name"),
+                field(fields, columns, "description"),
+                price == null || price.isBlank() ? null : new BigDecimal(price.strip()),
+                quantity == null || quantity.isBlank() ? null : Integer.valueOf(quantity.strip())
+        );
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private String validate(ProductImportRow row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "name is required";
+        }
+        if (row.getName().length() > MAX_NAME_LENGTH) {
+            return "name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (row.getDescription() == null) {
+            return "description is required";
+        }
+        if (row.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "description is longer than " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        BigDecimal price = row.getPrice();
+        if (price == null || price.signum() < 0) {
+            return "price must be zero or positive";
+        }
+        if (price.scale() > MAX_PRICE_SCALE || price.precision() - price.scale() > MAX_PRICE_INTEGER_DIGITS) {
+            return "price must have at most " + MAX_PRICE_INTEGER_DIGITS + " digits and "
+                    + MAX_PRICE_SCALE + " decimals";
+        }
+        if (row.getQuantity() == null || row.getQuantity() < 0) {
+            return "quantity must be zero or positive";
+        }
+        return null;
+    }
+
+    /**
+     * Writes one batch: existing products are loaded with one query by id and one by name
+     * and updated in place, new ones are persisted with pooled sequence ids so the inserts
+     * go out as JDBC batches at commit. One change event per kind covers the whole batch.
+     * A row without an id updates the product of the same name, so importing the same file
+     * twice does not duplicate the catalog; a name shared by several products needs the id.
+     */
+    private BatchResult writeBatch(List<PendingRow> rows) {
+        List<Long> ids = rows.stream()
+                .map(pending -> pending.row().getId())
+                .filter(id -> id != null)
+                .distinct()
+                .toList();
+        Map<Long, Product> existing = ids.isEmpty()
+                ? Map.of()
+                : productRepository.findAllById(ids)
+                        .stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<String> names = rows.stream()
+                .filter(pending -> pending.row().getId() == null)
+                .map(pending -> pending.row().getName())
+                .distinct()
+                .toList();
+        Map<String, List<Product>> existingByName = names.isEmpty()
+                ? Map.of()
+                : productRepository.findByNameIn(names)
+                        .stream()
+                        .collect(Collectors.groupingBy(Product::getName));
+
+        List<Product> created = new ArrayList<>();
+        Map<String, Product> createdByName = new HashMap<>();
+        List<Long> updated = new ArrayList<>();
+        Map<Product, ProductStock> before = new LinkedHashMap<>();
+        int repeated = 0;
+        List<ProductImportError> errors = new ArrayList<>();
+        for (PendingRow pending : rows) {
+            ProductImportRow row = pending.row();
+            if (row.getId() == null) {
+                List<Product> sameName = existingByName.getOrDefault(row.getName(), List.of());
+                if (sameName.size() > 1) {
+                    errors.add(new ProductImportError(
+                            pending.line(),
+                            "Several products are named " + row.getName() + ", an id is required"
+                    ));
+                } else if (sameName.size() == 1) {
+                    before.putIfAbsent(sameName.get(0), CatalogStockChangedEvent.stockOf(sameName.get(0)));
+                    productMapper.updateEntity(row, sameName.get(0));
+                    updated.add(sameName.get(0).getId());
+                } else if (createdByName.containsKey(row.getName())) {
+                    productMapper.updateEntity(row, createdByName.get(row.getName()));
+                    repeated++;
+                } else {
+                    Product product = productMapper.toEntity(row);
+                    created.add(product);
+                    createdByName.put(row.getName(), product);
+                }
+                continue;
+            }
+            Product product = existing.get(row.getId());
+            if (product == null) {
+                errors.add(new ProductImportError(pending.line(), "Product " + row.getId() + " not found"));
+                continue;
+            }
+            before.putIfAbsent(product, CatalogStockChangedEvent.stockOf(product));
+            productMapper.updateEntity(row, product);
+            updated.add(product.getId());
+        }
+        List<Long> createdIds = productRepository.saveAll(created)
+                .stream()
+                .map(Product::getId)
+                .toList();
+        if (!createdIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.created(createdIds));
+        }
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(updated.stream().distinct().toList()));
+        }
+        List<ProductStock> after = new ArrayList<>();
+        before.keySet().forEach(product -> after.add(CatalogStockChangedEvent.stockOf(product)));
+        created.forEach(product -> after.add(CatalogStockChangedEvent.stockOf(product)));
+        if (!after.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogStockChangedEvent(List.copyOf(before.values()), after));
+        }
+        return new BatchResult(createdIds.size(), updated.size() + repeated, errors);
+    }
+
+    private record PendingRow(long line, ProductImportRow row) {
+    }
+
+    private record BatchResult(int created, int updated, List<ProductImportError> errors) {
+    }
+
+    private final class ImportRun {
+
+        private final List<PendingRow> pending = new ArrayList<>(batchSize);
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private long processed;
+        private long created;
+        private long updated;
+        private long failed;
+
+        void accept(long line, ProductImportRow row) {
+            processed++;
+            String error = validate(row);
+            if (error != null) {
+                fail(line, error);
+                return;
+            }
+            pending.add(new PendingRow(line, row));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            processed++;
+            fail(line, message);
+        }
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportError(line, message));
+            }
+        }
+
+        ProductImportReport finish() {
+            flush();
+            return new ProductImportReport(processed, created, updated, failed, List.copyOf(errors));
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingRow> batch = List.copyOf(pending);
+            pending.clear();
+            try {
+                BatchResult result = transactionTemplate.execute(status -> writeBatch(batch));
+                created += result.created();
+                updated += result.updated();
+                result.errors().forEach(error -> fail(error.getLine(), error.getMessage()));
+            } catch (DataAccessException | TransactionException ex) {
+                logger.warn(
+                        "Product import batch of lines {}-{} failed: {}",
+                        batch.get(0).line(),
+                        batch.get(batch.size() - 1).line(),
+                        ex.getMessage()
+                );
+                batch.forEach(row -> fail(row.line(), "Batch rejected by the database"));
+            }
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package net.redone.produit.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import net.redone.produit.entities.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over product names and descriptions.
+ * Terms are lower-cased and accent-folded; the term dictionary is kept sorted so that
+ * every term sharing a prefix is one contiguous range, which serves autocomplete and
+ * prefix matching of the last word of a query.
+ * Each term's postings are ordered by weight, then by id, so a search reads the best
+ * matches of a word first and stops as soon as no unread posting can enter the results.
+ * Reads are lock-free; writers are serialized so a product's postings are always
+ * replaced as a whole.
+ */
+@Component
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Terms a prefix expands to in a search: the ones found in the most products, so a
+     * short prefix keeps the common words rather than the first ones in alphabetical order.
+     */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /**
+     * Postings a search reads at most. Past it, the results are the best of the products
+     * where the rarest word of the query weighs the most, which bounds the cost of a query
+     * made of common words whatever the size of the catalog.
+     */
+    static final int MAX_POSTINGS_READ = 2_000;
+
+    /**
+     * Ids are packed below the weight in a posting, which leaves them 48 bits.
+     */
+    private static final int ID_BITS = 48;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int MAX_WEIGHT = (1 << (Long.SIZE - 1 - ID_BITS)) - 1;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, IndexedProduct> products = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int nextTermId;
+
+    public void put(Product product) {
+        Long id = product.getId();
+        if ((id & ~ID_MASK) != 0) {
+            throw new IllegalArgumentException("Product id " + id + " does not fit in the search index");
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(product.getName())) {
+            weights.merge(term, NAME_WEIGHT, Math::max);
+        }
+        for (String term : new LinkedHashSet<>(tokenize(product.getDescription()))) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        IndexedProduct indexed = new IndexedProduct(
+                id,
+                new Postings[weights.size()],
+                new int[weights.size()],
+                new int[weights.size()]
+        );
+        writeLock.lock();
+        try {
+            removeLocked(id);
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                Postings termPostings = postings.computeIfAbsent(entry.getKey(), term -> new Postings(term, nextTermId++));
+                indexed.terms()[i] = termPostings;
+                indexed.termIds()[i] = termPostings.id;
+                indexed.weights()[i] = entry.getValue();
+                i++;
+            }
+            for (int term = 0; term < indexed.terms().length; term++) {
+                indexed.terms()[term].add(indexed.weights()[term], indexed);
+            }
+            products.put(id, indexed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Collection<Long> productIds) {
+        writeLock.lock();
+        try {
+            productIds.forEach(this::removeLocked);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void clear() {
+        writeLock.lock();
+        try {
+            postings.clear();
+            products.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * Ids of the products matching every word of the query, best matches first.
+     * The last word is matched as a prefix so results follow the user as they type.
+     * <p>
+     * Every match contains the rarest word, so only its postings are read, best first, and
+     * each product read is scored from its own terms. Reading stops when the results are
+     * full and the next posting, even with the best weight of every other word, cannot
+     * beat the last of them, or after {@link #MAX_POSTINGS_READ} postings.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<QueryTerm> terms = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            QueryTerm term = i == tokens.size() - 1 ? prefixTerm(tokens.get(i)) : exactTerm(tokens.get(i));
+            if (term.frequency == 0) {
+                return List.of();
+            }
+            terms.add(term);
+        }
+        QueryTerm rarest = terms.get(0);
+        int otherScores = 0;
+        for (QueryTerm term : terms) {
+            otherScores += term.maxScore();
+            if (term.frequency < rarest.frequency) {
+                rarest = term;
+            }
+        }
+        otherScores -= rarest.maxScore();
+
+        PostingsReader reader = rarest.reader();
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Collections.reverseOrder());
+        for (int read = 0; read < MAX_POSTINGS_READ && !reader.exhausted(); read++) {
+            if (best.size() == limit && !canEnter(best.peek(), reader.nextScore() + otherScores, reader.nextId())) {
+                break;
+            }
+            IndexedProduct product = reader.next();
+            int score = score(product, terms);
+            if (score > 0) {
+                best.offer(new Hit(product.id(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(best);
+        Collections.sort(ranked);
+        return ranked.stream().map(Hit::id).toList();
+    }
+
+    /**
+     * Completions of the last word of the input, most frequent terms first,
+     * prefixed with the words already typed.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String last = tokens.get(tokens.size() - 1);
+        String head = String.join(" ", tokens.subList(0, tokens.size() - 1));
+        return mostFrequentTerms(last, limit)
+                .stream()
+                .map(termPostings -> head.isEmpty() ? termPostings.term : head + " " + termPostings.term)
+                .toList();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedProduct product = products.remove(productId);
+        if (product == null) {
+            return;
+        }
+        for (int i = 0; i < product.terms().length; i++) {
+            Postings termPostings = product.terms()[i];
+            termPostings.remove(product.weights()[i], productId);
+            if (termPostings.frequency == 0) {
+                postings.remove(termPostings.term, termPostings);
+            }
+        }
+    }
+
+    private QueryTerm exactTerm(String token) {
+        return new QueryTerm(postings.get(token), List.of(), 1);
+    }
+
+    /**
+     * A term that starts with the token, among its most frequent expansions. An exact
+     * match of the whole term is always kept and scores double so that "lamp" ranks
+     * "lamp" above "lampshade".
+     */
+    private QueryTerm prefixTerm(String token) {
+        List<Postings> expansions = new ArrayList<>();
+        for (Postings expansion : mostFrequentTerms(token, MAX_PREFIX_EXPANSIONS)) {
+            if (!expansion.term.equals(token)) {
+                expansions.add(expansion);
+            }
+        }
+        return new QueryTerm(postings.get(token), expansions, 2);
+    }
+
+    /**
+     * The terms starting with the prefix that occur in the most products, most frequent
+     * first. Only posting counts are compared over the whole range.
+     */
+    private List<Postings> mostFrequentTerms(String prefix, int limit) {
+        PriorityQueue<Postings> best = new PriorityQueue<>(limit + 1, Collections.reverseOrder());
+        for (Postings termPostings : prefixRange(prefix).values()) {
+            if (best.size() < limit || termPostings.compareTo(best.peek()) < 0) {
+                best.offer(termPostings);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Postings> ranked = new ArrayList<>(best);
+        Collections.sort(ranked);
+        return ranked;
+    }
+
+    private NavigableMap<String, Postings> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * The score of a product from its own terms, or 0 when one of the words is missing.
+     */
+    private static int score(IndexedProduct product, List<QueryTerm> terms) {
+        int total = 0;
+        for (QueryTerm term : terms) {
+            int score = term.score(product);
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    /**
+     * Whether an unread product scoring at most {@code bound} could still beat the last
+     * result. Within a weight postings come by ascending id, so one reaching the bound
+     * exactly sits at or after the next posting and loses a tie against a smaller id.
+     */
+    private static boolean canEnter(Hit last, int bound, long nextId) {
+        return bound > last.score() || (bound == last.score() && nextId < last.id());
+    }
+
+    private static long posting(int weight, long id) {
+        return (long) (MAX_WEIGHT - Math.min(weight, MAX_WEIGHT)) << ID_BITS | id;
+    }
+
+    private static int weight(long posting) {
+        return MAX_WEIGHT - (int) (posting >>> ID_BITS);
+    }
+
+    /**
+     * The products containing a term, highest weight first and by ascending id within a
+     * weight, each with the terms of the product so that it is scored without a lookup.
+     * Their count is kept alongside since the map does not track it.
+     */
+    private static final class Postings implements Comparable<Postings> {
+
+        private final String term;
+        private final int id;
+        private final ConcurrentSkipListMap<Long, IndexedProduct> entries = new ConcurrentSkipListMap<>();
+        private volatile int frequency;
+
+        private Postings(String term, int id) {
+            this.term = term;
+            this.id = id;
+        }
+
+        private void add(int weight, IndexedProduct product) {
+            if (entries.put(posting(weight, product.id()), product) == null) {
+                frequency++;
+            }
+        }
+
+        private void remove(int weight, long productId) {
+            if (entries.remove(posting(weight, productId)) != null) {
+                frequency--;
+            }
+        }
+
+        /**
+         * Most frequent first, then alphabetically.
+         */
+        @Override
+        public int compareTo(Postings other) {
+            int byFrequency = Integer.compare(other.frequency, frequency);
+            return byFrequency != 0 ? byFrequency : term.compareTo(other.term);
+        }
+
+        private int maxWeight() {
+            Map.Entry<Long, IndexedProduct> first = entries.firstEntry();
+            return first == null ? 0 : weight(first.getKey());
+        }
+    }
+
+    /**
+     * One word of a query: the exact term, scored {@code exactMultiplier} times its weight,
+     * and for the last word the terms it expands to, scored their weight.
+     */
+    private static final class QueryTerm {
+
+        private final Postings exact;
+        private final List<Postings> expansions;
+        private final BitSet expansionIds = new BitSet();
+        private final int exactMultiplier;
+        private final int frequency;
+
+        private QueryTerm(Postings exact, List<Postings> expansions, int exactMultiplier) {
+            this.exact = exact;
+            this.expansions = expansions;
+            expansions.forEach(expansion -> expansionIds.set(expansion.id));
+            this.exactMultiplier = exactMultiplier;
+            int total = exact == null ? 0 : exact.frequency;
+            for (Postings expansion : expansions) {
+                total += expansion.frequency;
+            }
+            this.frequency = total;
+        }
+
+        private int maxScore() {
+            int max = exact == null ? 0 : exact.maxWeight() * exactMultiplier;
+            for (Postings expansion : expansions) {
+                max = Math.max(max, expansion.maxWeight());
+            }
+            return max;
+        }
+
+        private int score(IndexedProduct product) {
+            int score = 0;
+            int[] termIds = product.termIds();
+            for (int i = 0; i < termIds.length; i++) {
+                if (exact != null && termIds[i] == exact.id) {
+                    score = Math.max(score, product.weights()[i] * exactMultiplier);
+                } else if (expansionIds.get(termIds[i])) {
+                    score = Math.max(score, product.weights()[i]);
+                }
+            }
+            return score;
+        }
+
+        /**
+         * Whether the product scores {@code score} for this word with the given term, and no
+         * other of its terms scores as much before it.
+         */
+        private boolean scoresBestWith(IndexedProduct product, int termId, int score) {
+            int best = 0;
+            int bestTermId = -1;
+            int[] termIds = product.termIds();
+            for (int i = 0; i < termIds.length; i++) {
+                int termScore = 0;
+                if (exact != null && termIds[i] == exact.id) {
+                    termScore = product.weights()[i] * exactMultiplier;
+                } else if (expansionIds.get(termIds[i])) {
+                    termScore = product.weights()[i];
+                }
+                if (termScore > best) {
+                    best = termScore;
+                    bestTermId = termIds[i];
+                }
+            }
+            return best == score && bestTermId == termId;
+        }
+
+        private PostingsReader reader() {
+            PostingsReader reader = new PostingsReader(this, expansions.size() + 1);
+            if (exact != null) {
+                reader.open(exact, exactMultiplier);
+            }
+            for (Postings expansion : expansions) {
+                reader.open(expansion, 1);
+            }
+            reader.start();
+            return reader;
+        }
+    }
+
+    /**
+     * The postings of the terms of a query word merged best first, as a heap of cursors.
+     * A product containing several of the terms is only returned from the one it scores
+     * best with, the first time it can rank there.
+     */
+    private static final class PostingsReader {
+
+        private final QueryTerm term;
+        private final Cursor[] heap;
+        private int size;
+
+        private PostingsReader(QueryTerm term, int terms) {
+            this.term = term;
+            this.heap = new Cursor[terms];
+        }
+
+        private void open(Postings termPostings, int multiplier) {
+            Cursor cursor = new Cursor(termPostings, multiplier);
+            if (cursor.advance()) {
+                heap[size++] = cursor;
+            }
+        }
+
+        private void start() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+            skipRepeats();
+        }
+
+        private boolean exhausted() {
+            return size == 0;
+        }
+
+        private int nextScore() {
+            return heap[0].score;
+        }
+
+        private long nextId() {
+            return heap[0].product.id();
+        }
+
+        private IndexedProduct next() {
+            IndexedProduct product = heap[0].product;
+            advance();
+            skipRepeats();
+            return product;
+        }
+
+        private void skipRepeats() {
+            while (heap.length > 1 && size > 0 && !term.scoresBestWith(heap[0].product, heap[0].termId, heap[0].score)) {
+                advance();
+            }
+        }
+
+        private void advance() {
+            if (!heap[0].advance()) {
+                heap[0] = heap[--size];
+                heap[size] = null;
+            }
+            if (size > 0) {
+                siftDown(0);
+            }
+        }
+
+        private void siftDown(int index) {
+            Cursor cursor = heap[index];
+            int child;
+            while ((child = 2 * index + 1) < size) {
+                if (child + 1 < size && heap[child + 1].compareTo(heap[child]) < 0) {
+                    child++;
+                }
+                if (cursor.compareTo(heap[child]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = cursor;
+        }
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final Iterator<Map.Entry<Long, IndexedProduct>> postings;
+        private final int termId;
+        private final int multiplier;
+        private int score;
+        private IndexedProduct product;
+
+        private Cursor(Postings termPostings, int multiplier) {
+            this.postings = termPostings.entries.entrySet().iterator();
+            this.termId = termPostings.id;
+            this.multiplier = multiplier;
+        }
+
+        /**
+         * Highest score first, then ascending id.
+         */
+        @Override
+        public int compareTo(Cursor other) {
+            int byScore = Integer.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(product.id(), other.product.id());
+        }
+
+        private boolean advance() {
+            if (!postings.hasNext()) {
+                return false;
+            }
+            Map.Entry<Long, IndexedProduct> posting = postings.next();
+            score = weight(posting.getKey()) * multiplier;
+            product = posting.getValue();
+            return true;
+        }
+    }
+
+    private record IndexedProduct(long id, Postings[] terms, int[] termIds, int[] weights) {
+    }
+
+    /**
+     * Highest score first, then ascending id.
+     */
+    private record Hit(long id, int score) implements Comparable<Hit> {
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Integer.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.redone.produit.services;
+
+import java.util.List;
+import net.redone.produit.entities.Product;
+import net.redone.produit.events.ProductChangedEvent;
+import net.redone.produit.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Loads the catalog into the search index once the application is up, then applies
+ * every committed product change to it.
+ */
+@Component
+public class ProductSearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+
+    public ProductSearchIndexer(ProductRepository productRepository, ProductSearchIndex productSearchIndex) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        long after = 0L;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_BATCH_SIZE));
+            batch.forEach(productSearchIndex::put);
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        logger.info(
+                "Indexed {} products for search in {} ms",
+                productSearchIndex.size(),
+                (System.nanoTime() - started) / 1_000_000
+        );
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.ChangeType.DELETED) {
+            productSearchIndex.remove(event.getProductIds());
+            return;
+        }
+        productRepository.findAllById(event.getProductIds()).forEach(productSearchIndex::put);
+    }
+}
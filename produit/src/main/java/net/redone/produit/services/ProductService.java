@@ -1,6 +1,8 @@
 package net.redone.produit.services;
 
+import java.util.Collection;
 import java.util.List;
+import net.redone.produit.dtos.CursorPage;
 import net.redone.produit.dtos.ProductCreateRequest;
 import net.redone.produit.dtos.ProductResponse;
 import net.redone.produit.dtos.ProductUpdateRequest;
@@ -15,5 +17,13 @@ public interface ProductService {
 
     List<ProductResponse> findAll();
 
+    CursorPage<ProductResponse> findPage(Long after, int limit);
+
     ProductResponse findById(Long id);
+
+    List<ProductResponse> findAllByIds(Collection<Long> ids);
+
+    List<ProductResponse> search(String query, int limit);
+
+    List<String> autocomplete(String prefix, int limit);
 }
@@ -1,30 +1,53 @@
 package net.redone.produit.services;
 
+import io.micrometer.core.annotation.Timed;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import net.redone.produit.dtos.CursorPage;
 import net.redone.produit.dtos.ProductCreateRequest;
 import net.redone.produit.dtos.ProductResponse;
+import net.redone.produit.dtos.ProductStock;
 import net.redone.produit.dtos.ProductUpdateRequest;
 import net.redone.produit.entities.Product;
+import net.redone.produit.events.CatalogStockChangedEvent;
+import net.redone.produit.events.ProductChangedEvent;
 import net.redone.produit.mappers.ProductMapper;
 import net.redone.produit.repositories.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @Transactional
+@Timed("produit.service")
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
 
     @Override
     public ProductResponse create(ProductCreateRequest request) {
         Product product = productMapper.toEntity(request);
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved.getId()));
+        eventPublisher.publishEvent(CatalogStockChangedEvent.created(saved));
         return productMapper.toResponse(saved);
     }
 
@@ -32,17 +55,21 @@ public class ProductServiceImpl implements ProductService {
     public ProductResponse update(Long id, ProductUpdateRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        ProductStock before = CatalogStockChangedEvent.stockOf(product);
         productMapper.updateEntity(request, product);
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved.getId()));
+        eventPublisher.publishEvent(CatalogStockChangedEvent.updated(before, saved));
         return productMapper.toResponse(saved);
     }
 
     @Override
     public void delete(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+        eventPublisher.publishEvent(CatalogStockChangedEvent.deleted(product));
     }
 
     @Override
@@ -54,6 +81,23 @@ public class ProductServiceImpl implements ProductService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> findPage(Long after, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<Product> products = productRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after,
+                Limit.of(pageSize + 1)
+        );
+        boolean hasMore = products.size() > pageSize;
+        List<ProductResponse> items = products.stream()
+                .limit(pageSize)
+                .map(productMapper::toResponse)
+                .toList();
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ProductResponse findById(Long id) {
@@ -61,4 +105,45 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
         return productMapper.toResponse(product);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findAllByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_SIZE + " products can be requested at once"
+            );
+        }
+        return productRepository.findAllById(ids)
+                .stream()
+                .map(productMapper::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> search(String query, int limit) {
+        List<Long> ids = productSearchIndex.search(query, Math.clamp(limit, 1, MAX_SEARCH_RESULTS));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> autocomplete(String prefix, int limit) {
+        return productSearchIndex.suggest(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
 }
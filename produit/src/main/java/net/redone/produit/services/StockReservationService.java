@@ -0,0 +1,15 @@
+package net.redone.produit.services;
+
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.dtos.StockReservationResponse;
+
+public interface StockReservationService {
+
+    StockReservationResponse reserve(StockReservationRequest request);
+
+    StockReservationResponse commit(String reservationId);
+
+    StockReservationResponse release(String reservationId);
+
+    int releaseExpired();
+}
@@ -0,0 +1,183 @@
+package net.redone.produit.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import net.redone.produit.dtos.ProductStock;
+import net.redone.produit.dtos.StockReservationItem;
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.dtos.StockReservationResponse;
+import net.redone.produit.entities.ReservationStatus;
+import net.redone.produit.entities.StockReservation;
+import net.redone.produit.entities.StockReservationLine;
+import net.redone.produit.events.CatalogStockChangedEvent;
+import net.redone.produit.exceptions.InsufficientStockException;
+import net.redone.produit.repositories.ProductRepository;
+import net.redone.produit.repositories.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reserves stock with conditional set-based updates: each line is a single
+ * {@code quantity = quantity - n where quantity >= n} statement, so no row lock is
+ * held longer than the reserving transaction and concurrent orders can never oversell.
+ */
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    static final String OVERSOLD = "OVERSOLD";
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reservationTtl;
+
+    public StockReservationServiceImpl(
+            ProductRepository productRepository,
+            StockReservationRepository stockReservationRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${produit.reservations.ttl:15m}") Duration reservationTtl
+    ) {
+        this.productRepository = productRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.reservationTtl = reservationTtl;
+    }
+
+    @Override
+    public StockReservationResponse reserve(StockReservationRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reservation must contain items");
+        }
+        // Sorted by product id so concurrent reservations always lock rows in the same order.
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationItem item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Each item needs a product and a positive quantity"
+                );
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setId(UUID.randomUUID().toString());
+        reservation.setStatus(ReservationStatus.RESERVED);
+        reservation.setCreatedAt(LocalDateTime.now());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (productRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                int available = productRepository.findQuantityById(entry.getKey())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+                throw new InsufficientStockException(entry.getKey(), available);
+            }
+            reservation.getLines().add(new StockReservationLine(entry.getKey(), entry.getValue()));
+        }
+        publishStockMoved(quantities);
+        stockReservationRepository.save(reservation);
+        return toResponse(reservation);
+    }
+
+    /**
+     * Makes a reservation final. The order it belongs to is already committed, so a
+     * reservation the sweeper released in the meantime takes its stock back; if that stock
+     * has been sold since, the reservation is flagged as oversold for reconciliation.
+     */
+    @Override
+    public StockReservationResponse commit(String reservationId) {
+        StockReservation reservation = findReservation(reservationId);
+        if (reservation.getStatus() == ReservationStatus.RELEASED && !retake(reservation)) {
+            reservation.setOversoldAt(LocalDateTime.now());
+        }
+        reservation.setStatus(ReservationStatus.COMMITTED);
+        return toResponse(reservation);
+    }
+
+    @Override
+    public StockReservationResponse release(String reservationId) {
+        StockReservation reservation = findReservation(reservationId);
+        if (reservation.getStatus() == ReservationStatus.COMMITTED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Reservation already committed");
+        }
+        restock(reservation);
+        return toResponse(reservation);
+    }
+
+    @Override
+    public int releaseExpired() {
+        List<StockReservation> expired = stockReservationRepository.findByStatusAndCreatedAtBefore(
+                ReservationStatus.RESERVED,
+                LocalDateTime.now().minus(reservationTtl)
+        );
+        expired.forEach(this::restock);
+        return expired.size();
+    }
+
+    private void restock(StockReservation reservation) {
+        if (reservation.getStatus() != ReservationStatus.RESERVED) {
+            return;
+        }
+        Map<Long, Integer> returned = new HashMap<>();
+        for (StockReservationLine line : reservation.getLines()) {
+            productRepository.incrementStock(line.getProductId(), line.getQuantity());
+            returned.merge(line.getProductId(), -line.getQuantity(), Integer::sum);
+        }
+        publishStockMoved(returned);
+        reservation.setStatus(ReservationStatus.RELEASED);
+    }
+
+    /**
+     * Takes the stock of a released reservation again, all lines or none.
+     */
+    private boolean retake(StockReservation reservation) {
+        List<StockReservationLine> taken = new ArrayList<>();
+        for (StockReservationLine line : reservation.getLines()) {
+            if (productRepository.decrementStock(line.getProductId(), line.getQuantity()) == 0) {
+                taken.forEach(done -> productRepository.incrementStock(done.getProductId(), done.getQuantity()));
+                return false;
+            }
+            taken.add(line);
+        }
+        Map<Long, Integer> retaken = new HashMap<>();
+        taken.forEach(line -> retaken.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        publishStockMoved(retaken);
+        return true;
+    }
+
+    /**
+     * Reports stock moved by the conditional updates, which bypass the entities: one
+     * query reads the price and new quantity of the products, already locked by this
+     * transaction, and the quantity before is derived from what was taken.
+     */
+    private void publishStockMoved(Map<Long, Integer> takenByProduct) {
+        List<ProductStock> after = productRepository.findStockByIdIn(takenByProduct.keySet());
+        List<ProductStock> before = after.stream()
+                .map(stock -> new ProductStock(
+                        stock.getId(),
+                        stock.getPrice(),
+                        stock.getQuantity() + takenByProduct.get(stock.getId())
+                ))
+                .toList();
+        eventPublisher.publishEvent(new CatalogStockChangedEvent(before, after));
+    }
+
+    private StockReservation findReservation(String reservationId) {
+        return stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Reservation not found"));
+    }
+
+    private StockReservationResponse toResponse(StockReservation reservation) {
+        String status = reservation.getOversoldAt() != null ? OVERSOLD : reservation.getStatus().name();
+        return new StockReservationResponse(reservation.getId(), status, null, null);
+    }
+}
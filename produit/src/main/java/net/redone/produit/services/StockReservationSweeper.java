@@ -0,0 +1,33 @@
+package net.redone.produit.services;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives back the stock of reservations that were never committed or released,
+ * e.g. because commande crashed between reserving and saving the order.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationSweeper.class);
+
+    private final StockReservationService stockReservationService;
+
+    @Scheduled(fixedDelayString = "${produit.reservations.sweep-interval:60s}")
+    public void releaseExpired() {
+        try {
+            int released = stockReservationService.releaseExpired();
+            if (released > 0) {
+                logger.info("Released {} expired stock reservations", released);
+            }
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            logger.debug("Expired reservation changed concurrently, retrying on next sweep");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.redone.produit.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+class CachingJwtDecoderTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private Instant expiresAt = Instant.now().plus(Duration.ofMinutes(5));
+
+    private final JwtDecoder verifyingDecoder = token -> {
+        verifications.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new BadJwtException("Invalid signature");
+        }
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("alice")
+                .issuedAt(expiresAt.minus(Duration.ofMinutes(10)))
+                .expiresAt(expiresAt)
+                .build();
+    };
+
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(verifyingDecoder, 100, Duration.ofMinutes(10));
+
+    @Test
+    void verifiesEachTokenOnce() {
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertThat(second).isSameAs(first);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheRejectedOrExpiredTokens() {
+        assertThatThrownBy(() -> decoder.decode("bad-token")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad-token")).isInstanceOf(BadJwtException.class);
+        assertThat(verifications).hasValue(2);
+
+        expiresAt = Instant.now().minusSeconds(1);
+        decoder.decode("token-expired");
+        decoder.decode("token-expired");
+        assertThat(verifications).hasValue(4);
+    }
+
+    @Test
+    void concurrentRequestsWithANewTokenVerifyItOnce() throws Exception {
+        int callers = 16;
+        CountDownLatch started = new CountDownLatch(callers);
+        CountDownLatch release = new CountDownLatch(1);
+        CachingJwtDecoder slowDecoder = new CachingJwtDecoder(token -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return verifyingDecoder.decode(token);
+        }, 100, Duration.ofMinutes(10));
+
+        List<Future<Jwt>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return slowDecoder.decode("token-a");
+                }));
+            }
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            release.countDown();
+            Jwt first = results.getFirst().get(10, TimeUnit.SECONDS);
+            for (Future<Jwt> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        }
+        assertThat(verifications).hasValue(1);
+    }
+}
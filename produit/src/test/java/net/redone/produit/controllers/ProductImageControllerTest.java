@@ -0,0 +1,117 @@
+package net.redone.produit.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import net.redone.produit.repositories.ProductRepository;
+import net.redone.produit.services.ProductImageStorage;
+import net.redone.produit.services.ProductImageVariants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class ProductImageControllerTest {
+
+    @TempDir
+    Path imageDir;
+
+    private MockMvc mockMvc;
+    private byte[] image;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ProductImageStorage storage = new ProductImageStorage(imageDir.toString());
+        ProductImageVariants variants = new ProductImageVariants(storage, List.of(200), 0.8f, 1, 4, Duration.ofSeconds(5));
+        ProductImageController controller = new ProductImageController(
+                mock(ProductRepository.class),
+                storage,
+                variants,
+                Duration.ofDays(7)
+        );
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        image = new byte[4096];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) i;
+        }
+        Files.write(storage.original(3L), image);
+    }
+
+    @Test
+    void servesValidatorsAndAnswersConditionalRequestsWith304() throws Exception {
+        MvcResult first = mockMvc.perform(get("/catalog/3.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=604800, public"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(image))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+        assertThat(imageDir.resolve("3.jpg.sha256")).exists();
+
+        mockMvc.perform(get("/catalog/3.jpg").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/catalog/3.jpg")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        byte[] expected = new byte[100];
+        System.arraycopy(image, 100, expected, 0, 100);
+        mockMvc.perform(get("/catalog/3.jpg").header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/4096"))
+                .andExpect(content().bytes(expected));
+    }
+
+    @Test
+    void delegatesTheBodyToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        mockMvc.perform(get("/catalog/3.jpg").requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4096))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename",
+                        imageDir.resolve("3.jpg").toAbsolutePath().toString()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 4096L))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void servesTheOriginalUncachedWhenTheVariantCannotBeProduced() throws Exception {
+        String originalEtag = mockMvc.perform(get("/catalog/3.jpg")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // The stored bytes are not a decodable JPEG, so resizing fails and the original is served.
+        MvcResult fallback = mockMvc.perform(get("/catalog/3.jpg").param("w", "200"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(image))
+                .andReturn();
+        assertThat(fallback.getResponse().getHeader(HttpHeaders.ETAG))
+                .isNotNull()
+                .isNotEqualTo(originalEtag);
+
+        mockMvc.perform(get("/catalog/3.jpg").param("w", "200").header(HttpHeaders.IF_NONE_MATCH, originalEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void returns404ForMissingImagesAnd400ForUnknownWidths() throws Exception {
+        mockMvc.perform(get("/catalog/42.jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/catalog/3.jpg").param("w", "123")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,61 @@
+package net.redone.produit.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import net.redone.produit.config.InternalToken;
+import net.redone.produit.dtos.StockReservationResponse;
+import net.redone.produit.services.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class StockReservationControllerTest {
+
+    private static final String RESERVATION = "{\"items\":[{\"productId\":1,\"quantity\":1000}]}";
+
+    private StockReservationService stockReservationService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationService = mock(StockReservationService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new StockReservationController(stockReservationService, new InternalToken("test-secret"))
+        ).build();
+    }
+
+    @Test
+    void rejectsCallersWithoutTheInternalToken() throws Exception {
+        mockMvc.perform(post("/internal/reservations").contentType(MediaType.APPLICATION_JSON).content(RESERVATION))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/reservations")
+                        .header(InternalToken.HEADER, "guessed")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(RESERVATION))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/reservations/abc/commit").header("Authorization", "Bearer user"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/reservations/abc/release"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(stockReservationService);
+    }
+
+    @Test
+    void reservesForServicesHoldingTheToken() throws Exception {
+        when(stockReservationService.reserve(any())).thenReturn(new StockReservationResponse("abc", "RESERVED", null, null));
+
+        mockMvc.perform(post("/internal/reservations")
+                        .header(InternalToken.HEADER, "test-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(RESERVATION))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,131 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import net.redone.produit.dtos.CatalogSummary;
+import net.redone.produit.dtos.ProductStock;
+import net.redone.produit.dtos.StockReservationItem;
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.entities.Product;
+import net.redone.produit.events.CatalogStockChangedEvent;
+import net.redone.produit.repositories.ProductRepository;
+import net.redone.produit.repositories.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:catalog-statistics")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CatalogStatistics.class, StockReservationServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogStatisticsTest {
+
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    @Autowired
+    private CatalogStatistics statistics;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void seedProducts() {
+        stockReservationRepository.deleteAll();
+        productRepository.deleteAll();
+        keyboard = productRepository.save(new Product(null, "Clavier", "", new BigDecimal("20.00"), 6));
+        mouse = productRepository.save(new Product(null, "Souris", "", new BigDecimal("5.50"), 2));
+        statistics.reconcile();
+    }
+
+    @Test
+    void summaryQueryAggregatesTheCatalog() {
+        CatalogSummary summary = productRepository.summarize(LOW_STOCK_THRESHOLD);
+
+        assertThat(summary.getProductCount()).isEqualTo(2);
+        assertThat(summary.getStockValue()).isEqualByComparingTo("131.00");
+        assertThat(summary.getLowStockCount()).isEqualTo(1);
+        assertSameAsDatabase();
+    }
+
+    @Test
+    void committedReservationsMoveTheCountersLikeTheDatabase() {
+        String reservationId = stockReservationService.reserve(new StockReservationRequest(List.of(
+                new StockReservationItem(keyboard.getId(), 3),
+                new StockReservationItem(mouse.getId(), 1)
+        ))).getReservationId();
+
+        assertThat(statistics.summary().getStockValue()).isEqualByComparingTo("65.50");
+        assertThat(statistics.summary().getLowStockCount()).isEqualTo(2);
+        assertSameAsDatabase();
+
+        stockReservationService.release(reservationId);
+        assertThat(statistics.summary().getStockValue()).isEqualByComparingTo("131.00");
+        assertSameAsDatabase();
+    }
+
+    @Test
+    void productWritesApplyTheirDelta() {
+        Product cable = new Product(7L, "Cable", "", new BigDecimal("3.00"), 10);
+        statistics.onStockChanged(CatalogStockChangedEvent.created(cable));
+        ProductStock before = CatalogStockChangedEvent.stockOf(cable);
+        cable.setQuantity(1);
+        statistics.onStockChanged(CatalogStockChangedEvent.updated(before, cable));
+
+        CatalogSummary summary = statistics.summary();
+        assertThat(summary.getProductCount()).isEqualTo(3);
+        assertThat(summary.getStockValue()).isEqualByComparingTo("134.00");
+        assertThat(summary.getLowStockCount()).isEqualTo(2);
+
+        statistics.onStockChanged(CatalogStockChangedEvent.deleted(cable));
+        assertSameAsDatabase();
+    }
+
+    @Test
+    void readsNeverQueryAndReconcileKeepsChangesCountedWhileItQueries() {
+        ProductRepository repository = mock(ProductRepository.class);
+        CatalogStatistics counters = new CatalogStatistics(repository, LOW_STOCK_THRESHOLD);
+        Product cable = new Product(7L, "Cable", "", new BigDecimal("3.00"), 10);
+        when(repository.summarize(LOW_STOCK_THRESHOLD)).thenAnswer(invocation -> {
+            // Committed after the query's snapshot: counted by the listener, not by the database.
+            counters.onStockChanged(CatalogStockChangedEvent.created(cable));
+            return new CatalogSummary(2L, new BigDecimal("131.00"), 1L);
+        });
+
+        counters.reconcile();
+
+        CatalogSummary summary = counters.summary();
+        assertThat(summary.getProductCount()).isEqualTo(3);
+        assertThat(summary.getStockValue()).isEqualByComparingTo("161.00");
+        assertThat(summary.getLowStockCount()).isEqualTo(1);
+
+        counters.summary();
+        verify(repository).summarize(LOW_STOCK_THRESHOLD);
+    }
+
+    private void assertSameAsDatabase() {
+        CatalogSummary expected = productRepository.summarize(LOW_STOCK_THRESHOLD);
+        CatalogSummary actual = statistics.summary();
+        assertThat(actual.getProductCount()).isEqualTo(expected.getProductCount());
+        assertThat(actual.getStockValue()).isEqualByComparingTo(expected.getStockValue());
+        assertThat(actual.getLowStockCount()).isEqualTo(expected.getLowStockCount());
+    }
+}
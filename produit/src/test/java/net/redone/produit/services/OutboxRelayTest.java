@@ -0,0 +1,126 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.redone.produit.dtos.EventMessage;
+import net.redone.produit.dtos.ProductChangedPayload;
+import net.redone.produit.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest(properties = "outbox.relay.batch-size=2")
+@Import({OutboxRelay.class, OutboxService.class, OutboxRelayTest.Subscriber.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecordingPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        publisher.received.clear();
+        publisher.failing = false;
+    }
+
+    @Test
+    void relaysCommittedEventsInOrderAndOnlyOnce() {
+        appendChanges(1L, 2L, 3L);
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertThat(publisher.received).extracting(EventMessage::getAggregateId).containsExactly("1", "2", "3");
+        assertThat(publisher.received).extracting(EventMessage::getSource).containsOnly("produit");
+        assertThat(publisher.received).extracting(EventMessage::getId).isSorted();
+        assertThat(outboxEventRepository.findAll()).allSatisfy(event -> assertThat(event.getPublishedAt()).isNotNull());
+    }
+
+    @Test
+    void keepsEventsPendingUntilTheSubscriberAcceptsThem() {
+        appendChanges(1L, 2L);
+        publisher.failing = true;
+
+        outboxRelay.relay();
+
+        assertThat(publisher.received).isEmpty();
+        assertThat(outboxEventRepository.findAll()).allSatisfy(event -> assertThat(event.getPublishedAt()).isNull());
+
+        publisher.failing = false;
+        outboxRelay.relay();
+
+        assertThat(publisher.received).extracting(EventMessage::getAggregateId).containsExactly("1", "2");
+    }
+
+    @Test
+    void refusesEventsOutsideOfATransaction() {
+        assertThatThrownBy(() -> outboxService.append("Product", "1", "ProductChanged", "{}"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    private void appendChanges(Long... productIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Long productId : productIds) {
+            transactionTemplate.executeWithoutResult(status -> outboxService.append(
+                    "Product",
+                    String.valueOf(productId),
+                    "ProductChanged",
+                    new ProductChangedPayload(List.of(productId), "SAVED")
+            ));
+        }
+    }
+
+    static class RecordingPublisher implements OutboxPublisher {
+
+        private final List<EventMessage> received = new ArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        public void publish(List<EventMessage> messages) {
+            if (failing) {
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            received.addAll(messages);
+        }
+    }
+
+    @TestConfiguration
+    static class Subscriber {
+
+        @Bean
+        RecordingPublisher recordingPublisher() {
+            return new RecordingPublisher();
+        }
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+class ProductImageVariantsTest {
+
+    @TempDir
+    Path imageDir;
+
+    private ProductImageStorage storage;
+    private ProductImageVariants variants;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new ProductImageStorage(imageDir.toString());
+        variants = new ProductImageVariants(storage, List.of(200, 400), 0.8f, 2, 16, Duration.ofSeconds(10));
+        BufferedImage original = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(original, "jpeg", storage.original(7L).toFile());
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.shutdown();
+    }
+
+    @Test
+    void concurrentFirstRequestsShareOneResize() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Path>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return variants.resolve(7L, 200);
+            }));
+        }
+        start.countDown();
+        Path expected = imageDir.resolve("variants/7-" + digest(storage.original(7L)) + "-w200.jpg");
+        for (Future<Path> result : results) {
+            assertThat(result.get()).isEqualTo(expected);
+        }
+        pool.shutdown();
+
+        assertThat(variants.generatedCount()).isEqualTo(1);
+        BufferedImage variant = ImageIO.read(expected.toFile());
+        assertThat(variant.getWidth()).isEqualTo(200);
+        assertThat(variant.getHeight()).isEqualTo(150);
+
+        variants.resolve(7L, 200);
+        assertThat(variants.generatedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownWidthsAndFallsBackWhenOriginalIsMissing() {
+        assertThat(variants.supports(400)).isTrue();
+        assertThat(variants.supports(123)).isFalse();
+        assertThat(variants.resolve(99L, 200)).isEqualTo(storage.original(99L));
+        assertThat(Files.exists(imageDir.resolve("variants"))).isFalse();
+    }
+
+    @Test
+    void replacedImageGetsVariantsOfItsOwnContent() throws Exception {
+        Path before = variants.resolve(7L, 200);
+        byte[] square = jpeg(800, 800);
+        storage.save(7L, new MockMultipartFile("file", "7.jpg", "image/jpeg", square));
+
+        variants.regenerate(7L);
+        Path after = variants.resolve(7L, 200);
+
+        assertThat(after).isNotEqualTo(before)
+                .isEqualTo(imageDir.resolve("variants/7-" + ProductImageStorage.sha256Hex(square) + "-w200.jpg"));
+        assertThat(ImageIO.read(after.toFile()).getHeight()).isEqualTo(200);
+        assertThat(before).doesNotExist();
+    }
+
+    private static String digest(Path image) throws Exception {
+        return ProductImageStorage.sha256Hex(Files.readAllBytes(image));
+    }
+
+    private static byte[] jpeg(int width, int height) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpeg", output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,135 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import net.redone.produit.dtos.ProductImportError;
+import net.redone.produit.dtos.ProductImportReport;
+import net.redone.produit.entities.Product;
+import net.redone.produit.mappers.ProductMapper;
+import net.redone.produit.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest(properties = "produit.import.batch-size=2")
+@Import({ProductImportServiceImpl.class, ProductMapper.class, ProductImportServiceTest.Json.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void importsCsvWithQuotedFieldsAndReportsRejectedRows() throws IOException {
+        Product existing = productRepository.save(
+                new Product(null, "Old name", "Old description", new BigDecimal("1.00"), 1)
+        );
+        String csv = "﻿id,name,description,price,quantity\r\n"
+                + ",Lampe,\"Lampe de bureau, LED\",19.90,10\r\n"
+                + ",Câble,\"Câble \"\"USB-C\"\"\non two lines\",9.99,5\r\n"
+                + ",,Sans nom,1.00,1\r\n"
+                + existing.getId() + ",New name,New description,2.50,7\r\n"
+                + "999999,Ghost,Does not exist,1.00,1\r\n"
+                + ",Prix,Pas un nombre,abc,1\r\n"
+                + "\r\n"
+                + ",Dernier,Ligne finale,0,0";
+
+        ProductImportReport report = productImportService.importCsv(stream(csv));
+
+        assertThat(report.getProcessed()).isEqualTo(7);
+        assertThat(report.getCreated()).isEqualTo(3);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ProductImportError::getLine).containsExactly(5L, 7L, 8L);
+
+        List<Product> products = productRepository.findAll();
+        assertThat(products).extracting(Product::getName)
+                .containsExactlyInAnyOrder("New name", "Lampe", "Câble", "Dernier");
+        assertThat(products).filteredOn(product -> product.getName().equals("Câble"))
+                .extracting(Product::getDescription)
+                .containsExactly("Câble \"USB-C\"\non two lines");
+        assertThat(productRepository.findById(existing.getId()).orElseThrow().getQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    void importsNdjsonAndKeepsGoingAfterMalformedLines() throws IOException {
+        String ndjson = """
+                {"name":"Clavier","description":"AZERTY","price":49.90,"quantity":3}
+                {"name":"Souris",
+                {"name":"Écran","description":"27 pouces","price":-1,"quantity":2}
+
+                {"name":"Casque","description":"Sans fil","price":89.00,"quantity":0}
+                {"name":"Tapis","description":"XXL","price":12.345,"quantity":4}
+                """;
+
+        ProductImportReport report = productImportService.importNdjson(stream(ndjson));
+
+        assertThat(report.getProcessed()).isEqualTo(5);
+        assertThat(report.getCreated()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ProductImportError::getLine).containsExactly(2L, 3L, 6L);
+        assertThat(productRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void reimportingAFileUpdatesProductsByNameInsteadOfDuplicatingThem() throws IOException {
+        productRepository.save(new Product(null, "Homonyme", "Premier", new BigDecimal("1.00"), 1));
+        productRepository.save(new Product(null, "Homonyme", "Second", new BigDecimal("1.00"), 1));
+        String ndjson = """
+                {"name":"Clavier","description":"AZERTY","price":49.90,"quantity":3}
+                {"name":"Clavier","description":"QWERTY","price":45.00,"quantity":5}
+                {"name":"Souris","description":"Optique","price":19.90,"quantity":8}
+                {"name":"Homonyme","description":"Lequel ?","price":2.00,"quantity":2}
+                """;
+
+        ProductImportReport first = productImportService.importNdjson(stream(ndjson));
+        ProductImportReport second = productImportService.importNdjson(stream(ndjson));
+
+        assertThat(first.getCreated()).isEqualTo(2);
+        assertThat(first.getUpdated()).isEqualTo(1);
+        assertThat(second.getCreated()).isZero();
+        assertThat(second.getUpdated()).isEqualTo(3);
+        assertThat(second.getErrors()).extracting(ProductImportError::getLine).containsExactly(4L);
+        assertThat(productRepository.count()).isEqualTo(4);
+        assertThat(productRepository.findByNameIn(List.of("Clavier")))
+                .singleElement()
+                .satisfies(product -> {
+                    assertThat(product.getDescription()).isEqualTo("QWERTY");
+                    assertThat(product.getQuantity()).isEqualTo(5);
+                });
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TestConfiguration
+    static class Json {
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+}
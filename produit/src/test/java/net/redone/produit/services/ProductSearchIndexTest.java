@@ -0,0 +1,93 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import net.redone.produit.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(product(1L, "Lampe de bureau", "Éclairage LED orientable"));
+        index.put(product(2L, "Lampadaire", "Lampe sur pied pour salon"));
+        index.put(product(3L, "Câble USB-C", "Câble de charge rapide"));
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        assertThat(index.search("CABLE usb", 10)).containsExactly(3L);
+        assertThat(index.search("eclairage", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void matchesLastWordAsPrefixAndRanksNameAboveDescription() {
+        assertThat(index.search("lamp", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("lampe", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("lampa", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void requiresEveryWordAndHonoursLimit() {
+        assertThat(index.search("lampe salon", 10)).containsExactly(2L);
+        assertThat(index.search("lamp", 1)).hasSize(1);
+        assertThat(index.search("lampe cuisine", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void appliesUpdatesAndRemovals() {
+        index.put(product(3L, "Chargeur", "Bloc secteur 65W"));
+        assertThat(index.search("cable", 10)).isEmpty();
+        assertThat(index.search("chargeur", 10)).containsExactly(3L);
+
+        index.remove(List.of(1L));
+        assertThat(index.search("lampe", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void expandsShortPrefixesToTheirMostFrequentTerms() {
+        // More rare terms than the expansion cap, all sorting before the common one.
+        for (long id = 100; id < 100 + ProductSearchIndex.MAX_PREFIX_EXPANSIONS + 10; id++) {
+            index.put(product(id, "Modele caba" + id, ""));
+        }
+        index.put(product(10L, "Cabas en toile", ""));
+        index.put(product(11L, "Cabas en cuir", ""));
+
+        assertThat(index.search("cab", 1000)).contains(10L, 11L);
+        assertThat(index.search("cuir cab", 10)).containsExactly(11L);
+        assertThat(index.suggest("cab", 1)).containsExactly("cabas");
+    }
+
+    @Test
+    void readsTheStrongestMatchesOfTheRarestWordFirst() {
+        // More description-only matches than a search reads, all with smaller ids.
+        for (long id = 100; id < 100 + ProductSearchIndex.MAX_POSTINGS_READ + 10; id++) {
+            index.put(product(id, "Modele " + id, "Housse"));
+        }
+        index.put(product(10_000L, "Housse de couette", "Coton"));
+
+        assertThat(index.search("housse", 1)).containsExactly(10_000L);
+        assertThat(index.search("coton housse", 10)).containsExactly(10_000L);
+        assertThat(index.search("housse", ProductSearchIndex.MAX_POSTINGS_READ + 100))
+                .hasSize(ProductSearchIndex.MAX_POSTINGS_READ)
+                .startsWith(10_000L, 100L, 101L);
+    }
+
+    @Test
+    void suggestsCompletionsOfTheLastWord() {
+        assertThat(index.suggest("Lam", 10)).containsExactly("lampe", "lampadaire");
+        assertThat(index.suggest("cable de ch", 10)).containsExactly("cable de charge");
+    }
+
+    private static Product product(Long id, String name, String description) {
+        return new Product(id, name, description, BigDecimal.TEN, 1);
+    }
+}
@@ -0,0 +1,125 @@
+package net.redone.produit.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.redone.produit.dtos.StockReservationItem;
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.entities.Product;
+import net.redone.produit.exceptions.InsufficientStockException;
+import net.redone.produit.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:reservations;LOCK_TIMEOUT=10000")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockReservationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationConcurrencyTest.class);
+
+    private static final int STOCK = 200;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int MEASURED_PER_THREAD = 100;
+    /**
+     * Reservations per second that 16 threads must sustain on one hot product, each one a
+     * transaction on the same row of the in-memory H2 database. A single-core runner
+     * sustains 600 to 700, so only a real regression trips the floor, not a noisy run.
+     */
+    private static final double MIN_RESERVATIONS_PER_SECOND = 100;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void hotProductIsNeverOversold() throws InterruptedException {
+        Product product = productRepository.save(
+                new Product(null, "Hot product", "Everybody wants it", new BigDecimal("9.99"), STOCK)
+        );
+        StockReservationRequest request = new StockReservationRequest(
+                List.of(new StockReservationItem(product.getId(), 1))
+        );
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        reserveConcurrently(request, ATTEMPTS_PER_THREAD, reserved, rejected);
+
+        assertEquals(STOCK, reserved.get());
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD - STOCK, rejected.get());
+        assertEquals(0, productRepository.findQuantityById(product.getId()).orElseThrow());
+    }
+
+    @Test
+    void hotProductSustainsTheReservationFloor() throws InterruptedException {
+        int stock = 2 * THREADS * MEASURED_PER_THREAD;
+        Product product = productRepository.save(
+                new Product(null, "Best seller", "Never runs out", new BigDecimal("4.99"), stock)
+        );
+        StockReservationRequest request = new StockReservationRequest(
+                List.of(new StockReservationItem(product.getId(), 1))
+        );
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        // The first round only warms up the JIT and the connection pool.
+        reserveConcurrently(request, MEASURED_PER_THREAD, reserved, rejected);
+        reserved.set(0);
+
+        long startedAt = System.nanoTime();
+        reserveConcurrently(request, MEASURED_PER_THREAD, reserved, rejected);
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        double reservationsPerSecond = reserved.get() / seconds;
+        logger.info("{} reservations of one product from {} threads in {} ms: {} reservations/s",
+                reserved.get(), THREADS, Math.round(seconds * 1000), Math.round(reservationsPerSecond));
+
+        assertEquals(0, rejected.get());
+        assertEquals(0, productRepository.findQuantityById(product.getId()).orElseThrow());
+        assertThat(reservationsPerSecond).isGreaterThan(MIN_RESERVATIONS_PER_SECOND);
+    }
+
+    private void reserveConcurrently(
+            StockReservationRequest request,
+            int attemptsPerThread,
+            AtomicInteger reserved,
+            AtomicInteger rejected
+    ) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        stockReservationService.reserve(request);
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+}
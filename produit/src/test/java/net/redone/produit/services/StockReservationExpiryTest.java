@@ -0,0 +1,86 @@
+package net.redone.produit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import net.redone.produit.dtos.StockReservationItem;
+import net.redone.produit.dtos.StockReservationRequest;
+import net.redone.produit.entities.Product;
+import net.redone.produit.entities.ReservationStatus;
+import net.redone.produit.entities.StockReservation;
+import net.redone.produit.repositories.ProductRepository;
+import net.redone.produit.repositories.StockReservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservation-expiry",
+        "produit.reservations.ttl=0s"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockReservationServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationExpiryTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Test
+    void committingAnExpiredReservationTakesTheStockBack() {
+        Product product = product(5);
+        String reservationId = reserve(product, 3);
+
+        stockReservationService.releaseExpired();
+        assertEquals(5, productRepository.findQuantityById(product.getId()).orElseThrow());
+
+        assertEquals("COMMITTED", stockReservationService.commit(reservationId).getStatus());
+        assertEquals(2, productRepository.findQuantityById(product.getId()).orElseThrow());
+        StockReservation reservation = stockReservationRepository.findById(reservationId).orElseThrow();
+        assertEquals(ReservationStatus.COMMITTED, reservation.getStatus());
+        assertNull(reservation.getOversoldAt());
+    }
+
+    @Test
+    void committingAnExpiredReservationWhoseStockWasResoldFlagsIt() {
+        Product plenty = product(10);
+        Product scarce = product(2);
+        String reservationId = stockReservationService.reserve(new StockReservationRequest(List.of(
+                new StockReservationItem(plenty.getId(), 4),
+                new StockReservationItem(scarce.getId(), 2)
+        ))).getReservationId();
+        stockReservationService.releaseExpired();
+        reserve(scarce, 1);
+
+        assertEquals("OVERSOLD", stockReservationService.commit(reservationId).getStatus());
+        // Nothing is taken back when a line cannot be, so the other products are left as they were.
+        assertEquals(10, productRepository.findQuantityById(plenty.getId()).orElseThrow());
+        assertEquals(1, productRepository.findQuantityById(scarce.getId()).orElseThrow());
+        StockReservation reservation = stockReservationRepository.findById(reservationId).orElseThrow();
+        assertEquals(ReservationStatus.COMMITTED, reservation.getStatus());
+        assertNotNull(reservation.getOversoldAt());
+    }
+
+    private Product product(int quantity) {
+        return productRepository.save(new Product(null, "Product", "", new BigDecimal("9.99"), quantity));
+    }
+
+    private String reserve(Product product, int quantity) {
+        return stockReservationService.reserve(new StockReservationRequest(
+                List.of(new StockReservationItem(product.getId(), quantity))
+        )).getReservationId();
+    }
+}